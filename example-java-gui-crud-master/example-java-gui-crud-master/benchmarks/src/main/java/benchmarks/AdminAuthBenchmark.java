@@ -0,0 +1,57 @@
+package benchmarks;
+
+import dal.admins.AdminDAO;
+import dal.admins.AuthService;
+import dal.admins.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Logins per second: AdminDAO.checkIfAdminExists at several PBKDF2 costs,
+// against an admins table of `rows` accounts, plus the AuthService path
+// where the verified-login cache absorbs repeat logins.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class AdminAuthBenchmark {
+    private static final String PASSWORD = "correct horse";
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"1000", "10000", "120000"})
+    public int iterations;
+
+    private AdminDAO adminDao;
+    private AuthService cachedAuth;
+    private String username;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.prepare(rows);
+        BenchmarkData.seedAdmins(rows);
+        adminDao = new AdminDAO(new PasswordHasher(iterations));
+        // One account per cost, so each stored hash carries the cost being measured
+        username = "bench-" + iterations;
+        adminDao.addSignupAccount(username, PASSWORD);
+        cachedAuth = new AuthService(adminDao, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Benchmark
+    public boolean checkIfAdminExists() {
+        return adminDao.checkIfAdminExists(username, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean unknownUser() {
+        return adminDao.checkIfAdminExists("nobody", PASSWORD);
+    }
+
+    @Benchmark
+    public boolean authServiceCachedLogin() {
+        return cachedAuth.login(username, PASSWORD);
+    }
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import dal.students.InMemoryStudentRepository;
+import dal.students.StudentDAO;
+import dal.students.StudentRepositories;
+import dal.students.StudentRepository;
+import db.Database;
+import models.Student;
+import models.StudentGenerator;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+
+// Generated SQLite files for the benchmarks, one per row count, kept under
+// target/bench-data so repeated runs reuse them. Must be called before
+// anything touches db.Database, which reads -Ddb.url once. The memory backend
+// gets the same generated students, so both backends hold identical data.
+public final class BenchmarkData {
+    public static final String[] PROGRAMS = StudentGenerator.PROGRAMS;
+
+    private static final long SEED = 42;
+    private static String preparedUrl;
+
+    private BenchmarkData() {
+    }
+
+    // 'backend' is a StudentRepositories name: sqlite or memory
+    public static StudentRepository prepare(int rows, String backend) {
+        if (!StudentRepositories.MEMORY.equals(backend)) {
+            return prepare(rows);
+        }
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        Random random = new Random(SEED);
+        int chunk = 50_000;
+        for (int start = 0; start < rows; start += chunk) {
+            repository.addStudents(generate(random, start, Math.min(chunk, rows - start)));
+        }
+        return repository;
+    }
+
+    // Points the app at target/bench-data/students-<rows>.db holding exactly that many students
+    public static synchronized StudentDAO prepare(int rows) {
+        String url = "jdbc:sqlite:" + new File("target/bench-data/students-" + rows + ".db").getAbsolutePath();
+        if (preparedUrl == null) {
+            new File("target/bench-data").mkdirs();
+            System.setProperty("db.url", url);
+            preparedUrl = url;
+        } else if (!preparedUrl.equals(url)) {
+            // JMH forks per parameter set, so this only trips when run with -f 0
+            throw new IllegalStateException("Database already bound to " + preparedUrl + "; run with forks > 0");
+        }
+        StudentDAO dao = new StudentDAO();
+        trimTo(dao, rows);
+        int existing = dao.countStudents();
+        if (existing < 0) {
+            throw new IllegalStateException("Could not count the students in " + url);
+        }
+        if (existing < rows) {
+            Random random = new Random(SEED + existing);
+            int chunk = 50_000;
+            for (int start = existing; start < rows; start += chunk) {
+                dao.addStudents(generate(random, start, Math.min(chunk, rows - start)));
+            }
+        }
+        return dao;
+    }
+
+    // Fills admins up to the given size with filler accounts so lookups go
+    // through a realistically sized username index. Filler rows hold a plain
+    // value (the legacy format), since hashing a million passwords would take hours.
+    public static void seedAdmins(int count) {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO admins(username, password) VALUES (?, ?) ON CONFLICT(username) DO NOTHING")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < count; i++) {
+                pstmt.setString(1, "admin-" + i);
+                pstmt.setString(2, "filler-" + i);
+                pstmt.addBatch();
+                if (i % 10_000 == 9_999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not seed admins", e);
+        }
+    }
+
+    // Removes rows that earlier insert benchmarks left behind
+    public static void trimTo(StudentRepository dao, int rows) {
+        int lastKeptId = rows == 0 ? 0 : dao.findIdAtOffset(rows - 1);
+        if (lastKeptId < 0) {
+            return; // Fewer rows than requested; prepare() tops the table up
+        }
+        if (!(dao instanceof StudentDAO)) {
+            List<Student> extra;
+            while (!(extra = dao.getStudentsAfter(lastKeptId, 1000)).isEmpty()) {
+                for (Student student : extra) {
+                    dao.deleteStudent(student.getId());
+                }
+            }
+            return;
+        }
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM students WHERE id > ?")) {
+            pstmt.setInt(1, lastKeptId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not trim benchmark table", e);
+        }
+    }
+
+    public static List<Student> generate(Random random, int firstIndex, int count) {
+        return StudentGenerator.generate(random, firstIndex, count);
+    }
+
+    public static Student newStudent(Random random, int index) {
+        return StudentGenerator.newStudent(random, String.format("2024-%07d", index));
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import db.ConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Borrow, prepare, run and close a primary-key lookup, the shape of every
+// single-row DAO call. cacheSize=0 evicts each statement as soon as it is
+// prepared, i.e. the behaviour before the per-connection statement cache.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class StatementCacheBenchmark {
+    private static final String SELECT_BY_ID = "SELECT * FROM students WHERE id = ?";
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"0", "32"})
+    public int cacheSize;
+
+    private ConnectionPool pool;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkData.prepare(rows);
+        pool = new ConnectionPool(System.getProperty("db.url"), new Properties(), 1, 5000,
+                List.of("PRAGMA journal_mode = WAL", "PRAGMA synchronous = NORMAL"), cacheSize);
+        random = new Random(11);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(pool.getStatementCacheStats());
+        pool.close();
+    }
+
+    @Benchmark
+    public String selectById() throws SQLException {
+        try (Connection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
+            pstmt.setInt(1, 1 + random.nextInt(rows));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString("student_number") : null;
+            }
+        }
+    }
+}
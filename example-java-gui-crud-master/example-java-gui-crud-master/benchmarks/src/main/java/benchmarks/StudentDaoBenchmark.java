@@ -0,0 +1,85 @@
+package benchmarks;
+
+import dal.students.StudentDAO;
+import dal.students.StudentRepository;
+import models.Student;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Single-row student repository operations and the full-table read, against a
+// generated table of `rows` students.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class StudentDaoBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    // Storage engine behind the same calls; see StudentRepositories
+    @Param({"sqlite", "memory"})
+    public String backend;
+
+    private StudentRepository dao;
+    private int[] ids;
+    private Random random;
+    private int nextIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dao = BenchmarkData.prepare(rows, backend);
+        ids = new int[rows];
+        int[] count = {0};
+        dao.forEachStudent(StudentDAO.DEFAULT_FETCH_SIZE, student -> ids[count[0]++] = student.getId());
+        random = new Random(7);
+        nextIndex = rows;
+    }
+
+    // addStudent grows the table; put it back so every iteration sees the same size
+    @TearDown(Level.Iteration)
+    public void trim() {
+        BenchmarkData.trimTo(dao, rows);
+    }
+
+    @Benchmark
+    public int addStudent() {
+        return dao.addStudent(BenchmarkData.newStudent(random, nextIndex++));
+    }
+
+    @Benchmark
+    public boolean updateStudent() {
+        int id = ids[random.nextInt(ids.length)];
+        Student student = new Student(id, null, null, null,
+                BenchmarkData.PROGRAMS[random.nextInt(BenchmarkData.PROGRAMS.length)], 1 + random.nextInt(4));
+        return dao.updateStudent(student);
+    }
+
+    // A fresh row per call, inserted outside the measured region
+    @State(Scope.Thread)
+    public static class RowToDelete {
+        int id;
+
+        @Setup(Level.Invocation)
+        public void insert(StudentDaoBenchmark benchmark) {
+            id = benchmark.dao.addStudent(BenchmarkData.newStudent(benchmark.random, benchmark.nextIndex++));
+        }
+    }
+
+    @Benchmark
+    public boolean deleteStudent(RowToDelete row) {
+        return dao.deleteStudent(row.id);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void getAllStudents(Blackhole blackhole) {
+        List<Student> students = dao.getAllStudents();
+        blackhole.consume(students);
+    }
+}
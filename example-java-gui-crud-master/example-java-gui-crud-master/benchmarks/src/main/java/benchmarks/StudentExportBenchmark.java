@@ -0,0 +1,54 @@
+package benchmarks;
+
+import dal.students.StudentRepository;
+import export.ExportFormat;
+import export.StudentExporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Full-table export to a file, per format and with or without gzip
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentExportBenchmark {
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"sqlite", "memory"})
+    public String backend;
+
+    @Param({"CSV", "JSON_LINES"})
+    public ExportFormat format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private StudentExporter exporter;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StudentRepository dao = BenchmarkData.prepare(rows, backend);
+        exporter = new StudentExporter(dao);
+        Path dir = Files.createDirectories(Paths.get("target", "bench-export"));
+        target = dir.resolve("students-" + rows + "." + format.getExtension() + (gzip ? ".gz" : ""));
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return exporter.export(target, format, gzip, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+}
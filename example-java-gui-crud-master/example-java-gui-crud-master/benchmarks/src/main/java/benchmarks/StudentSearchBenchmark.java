@@ -0,0 +1,69 @@
+package benchmarks;
+
+import dal.students.StudentRepository;
+import dal.students.StudentSearchIndex;
+import models.Student;
+import org.openjdk.jmh.annotations.*;
+import pages.StudentTableModel;
+
+import javax.swing.*;
+import javax.swing.table.TableRowSorter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// filterTable-style search over a loaded table. searchRowFilter is the
+// original regex RowFilter scan, kept as the baseline for the in-memory
+// trigram index and the database (FTS5 or indexed LIKE) paths.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class StudentSearchBenchmark {
+    private static final int SEARCH_LIMIT = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"sqlite", "memory"})
+    public String backend;
+
+    // A common surname prefix, a rare substring and a two-word query
+    @Param({"smi", "lopez", "ana cruz"})
+    public String query;
+
+    private StudentRepository dao;
+    private List<Student> students;
+    private StudentTableModel loadedModel;
+    private TableRowSorter<StudentTableModel> sorter;
+    private StudentSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dao = BenchmarkData.prepare(rows, backend);
+        students = dao.getAllStudents();
+        loadedModel = new StudentTableModel();
+        loadedModel.setStudents(students);
+        sorter = new TableRowSorter<>(loadedModel);
+        searchIndex = new StudentSearchIndex();
+        searchIndex.rebuild(students);
+    }
+
+    @Benchmark
+    public int searchRowFilter() {
+        sorter.setRowFilter(RowFilter.regexFilter("(?i)" + Pattern.quote(query)));
+        return sorter.getViewRowCount();
+    }
+
+    @Benchmark
+    public int[] searchIndex() {
+        return searchIndex.search(query, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public List<Student> searchDatabase() {
+        return dao.searchStudents(query, null, SEARCH_LIMIT);
+    }
+}
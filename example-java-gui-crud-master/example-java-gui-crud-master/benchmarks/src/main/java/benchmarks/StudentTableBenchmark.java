@@ -0,0 +1,80 @@
+package benchmarks;
+
+import dal.students.StudentRepository;
+import dal.students.StudentSearchIndex;
+import models.Student;
+import org.openjdk.jmh.annotations.*;
+import pages.StudentTableModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// StudentPage load path without the window: filling the table model from
+// memory or straight from the database, and building the search index.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class StudentTableBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"sqlite", "memory"})
+    public String backend;
+
+    private StudentRepository dao;
+    private List<Student> students;
+    private StudentTableModel loadedModel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dao = BenchmarkData.prepare(rows, backend);
+        students = dao.getAllStudents();
+        loadedModel = new StudentTableModel();
+        loadedModel.setStudents(students);
+    }
+
+    @Benchmark
+    public StudentTableModel loadTableModel() {
+        StudentTableModel model = new StudentTableModel();
+        model.setStudents(new ArrayList<>(students));
+        return model;
+    }
+
+    @Benchmark
+    public StudentTableModel loadTableModelFromDatabase() {
+        StudentTableModel model = new StudentTableModel();
+        model.setStudents(dao.getAllStudents());
+        return model;
+    }
+
+    // The path StudentPage takes: rows go straight into the column store
+    @Benchmark
+    public StudentTableModel loadColumnStoreFromDatabase() {
+        StudentTableModel model = new StudentTableModel();
+        model.setStore(dao.getAllStudentsColumnar());
+        return model;
+    }
+
+    // Walks every cell the way a full repaint or export would
+    @Benchmark
+    public long scanTableCells() {
+        long checksum = 0;
+        for (int row = 0; row < loadedModel.getRowCount(); row++) {
+            for (int column = 0; column < loadedModel.getColumnCount(); column++) {
+                checksum += loadedModel.getValueAt(row, column).hashCode();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public StudentSearchIndex buildSearchIndex() {
+        StudentSearchIndex index = new StudentSearchIndex();
+        index.rebuild(students);
+        return index;
+    }
+}
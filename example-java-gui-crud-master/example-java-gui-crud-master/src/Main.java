@@ -4,11 +4,15 @@
 // GUi-JDBC Workshop
 
 import pages.LoginPage;
+import startup.StartupSequence;
 
 import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
+        // Opens the database and starts monitoring (including the EDT watchdog,
+        // -Dui.watchdog=false turns it off) on workers while the login window is built
+        StartupSequence.start();
         SwingUtilities.invokeLater(LoginPage::new);
     }
 }
\ No newline at end of file
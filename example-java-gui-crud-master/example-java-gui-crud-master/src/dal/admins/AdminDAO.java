@@ -1,57 +1,97 @@
 package dal.admins;
 
 import db.Database;
+import metrics.Metrics;
+import metrics.OperationMetrics;
 
 import java.sql.*;
 
 public class AdminDAO {
+    private static final OperationMetrics CHECK_METRICS = Metrics.operation("AdminDAO", "checkIfAdminExists");
+    private static final OperationMetrics FIND_METRICS = Metrics.operation("AdminDAO", "findStoredPassword");
+    private static final OperationMetrics REPLACE_METRICS = Metrics.operation("AdminDAO", "replaceStoredPassword");
+    private static final OperationMetrics SIGNUP_METRICS = Metrics.operation("AdminDAO", "addSignupAccount");
+
+    private final PasswordHasher hasher;
+
     public AdminDAO() {
-        createTable();
+        this(new PasswordHasher());
     }
 
-    // Method that creates a table database
-    private void createTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS admins (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "username TEXT NOT NULL," +
-                "password TEXT NOT NULL)";
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    public AdminDAO(PasswordHasher hasher) {
+        this.hasher = hasher;
+    }
+
+    public PasswordHasher getHasher() {
+        return hasher;
     }
 
-    // Method that checks if the user account exist
+    // Method that checks if the user account exist; one lookup through the unique username index
     public boolean checkIfAdminExists(String username, String password) {
-        String sql = "SELECT * FROM admins WHERE username = ? AND password = ?";
+        long start = CHECK_METRICS.start();
+        boolean valid = hasher.verify(password, findStoredPassword(username));
+        CHECK_METRICS.success(start, valid ? 1 : 0);
+        return valid;
+    }
+
+    // Returns the stored password hash (or legacy plain password), or null if there is no such admin
+    public String findStoredPassword(String username) {
+        String sql = "SELECT password FROM admins WHERE username = ?";
+        long start = FIND_METRICS.start();
         try (
                 Connection conn = Database.getConnection();
                 PreparedStatement ptstmt = conn.prepareStatement(sql)
         ) {
             ptstmt.setString(1, username);
-            ptstmt.setString(2, password);
 
             try (ResultSet rs = ptstmt.executeQuery()) {
-                return rs.next();
+                String stored = rs.next() ? rs.getString(1) : null;
+                FIND_METRICS.success(start, stored == null ? 0 : 1);
+                return stored;
             }
         } catch (SQLException e) {
+            FIND_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Replaces a stored value, e.g. to upgrade a legacy or lower-cost hash after a good login.
+    // Only succeeds if the row still holds the value that was verified.
+    public boolean replaceStoredPassword(String username, String expected, String replacement) {
+        String sql = "UPDATE admins SET password = ? WHERE username = ? AND password = ?";
+        long start = REPLACE_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, replacement);
+            pstmt.setString(2, username);
+            pstmt.setString(3, expected);
+            int changed = pstmt.executeUpdate();
+            REPLACE_METRICS.success(start, changed);
+            return changed == 1;
+        } catch (SQLException e) {
+            REPLACE_METRICS.failure(start, e);
             e.printStackTrace();
         }
         return false;
     }
 
-    // NEW: Add new accounts to the database
-    public void addSignupAccount(String username, String password){
-        String sql = "INSERT INTO admins(username, password) VALUES (?, ?)";
+    // NEW: Add new accounts to the database; returns false if the username is already taken.
+    // A single statement, so two concurrent signups for one name can't both succeed.
+    public boolean addSignupAccount(String username, String password){
+        String sql = "INSERT INTO admins(username, password) VALUES (?, ?) ON CONFLICT(username) DO NOTHING";
+        long start = SIGNUP_METRICS.start();
         try (Connection conn = Database.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
-            pstmt.setString(2, password);
-            pstmt.executeUpdate();
+            pstmt.setString(2, hasher.hash(password));
+            int inserted = pstmt.executeUpdate();
+            SIGNUP_METRICS.success(start, inserted);
+            return inserted == 1;
         } catch (SQLException e) {
+            SIGNUP_METRICS.failure(start, e);
             e.printStackTrace();
         }
+        return false;
     }
 }
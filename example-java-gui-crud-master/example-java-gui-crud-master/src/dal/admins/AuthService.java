@@ -0,0 +1,128 @@
+package dal.admins;
+
+import db.DatabaseExecutor;
+import metrics.Metrics;
+import metrics.OperationMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Login and signup for admins. Passwords are verified against salted PBKDF2
+// hashes (see PasswordHasher); a successful login is remembered for a short
+// time so logging out and back in doesn't pay the hashing cost again.
+public class AuthService {
+    // How long a verified login is remembered; 0 disables the cache
+    public static final long DEFAULT_SESSION_TTL_MS = Long.getLong("auth.sessionTtlMs", 10 * 60 * 1000L);
+    private static final int MAX_SESSIONS = 256;
+    // Rows = successful logins; cached logins are counted separately from full verifications
+    private static final OperationMetrics LOGIN_METRICS = Metrics.operation("AuthService", "login");
+    private static final OperationMetrics CACHED_LOGIN_METRICS = Metrics.operation("AuthService", "cachedLogin");
+
+    private final AdminDAO adminDao;
+    private final long sessionTtlMillis;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Per-process key so cached digests are useless outside this JVM
+    private final byte[] sessionKey = new byte[32];
+
+    public AuthService() {
+        this(new AdminDAO(), DEFAULT_SESSION_TTL_MS);
+    }
+
+    public AuthService(AdminDAO adminDao, long sessionTtlMillis) {
+        this.adminDao = adminDao;
+        this.sessionTtlMillis = sessionTtlMillis;
+        new SecureRandom().nextBytes(sessionKey);
+    }
+
+    // Returns true if the username and password match an admin account
+    public boolean login(String username, String password) {
+        long start = LOGIN_METRICS.start();
+        long now = System.currentTimeMillis();
+        byte[] digest = sessionDigest(username, password);
+        Session session = sessions.get(username);
+        if (session != null) {
+            if (session.expiresAt > now && MessageDigest.isEqual(session.digest, digest)) {
+                CACHED_LOGIN_METRICS.success(start, 1);
+                return true;
+            }
+            sessions.remove(username, session);
+        }
+
+        String stored = adminDao.findStoredPassword(username);
+        PasswordHasher hasher = adminDao.getHasher();
+        if (!hasher.verify(password, stored)) {
+            LOGIN_METRICS.success(start, 0);
+            return false;
+        }
+        if (hasher.needsRehash(stored)) {
+            adminDao.replaceStoredPassword(username, stored, hasher.hash(password));
+        }
+        remember(username, digest, now);
+        LOGIN_METRICS.success(start, 1);
+        return true;
+    }
+
+    // Creates the account; returns false if the username is already taken
+    public boolean signup(String username, String password) {
+        return adminDao.addSignupAccount(username, password);
+    }
+
+    // Hashing is deliberately slow, so callers on the EDT should use these
+    public CompletableFuture<Boolean> loginAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> login(username, password), DatabaseExecutor.get());
+    }
+
+    public CompletableFuture<Boolean> signupAsync(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> signup(username, password), DatabaseExecutor.get());
+    }
+
+    public void forget(String username) {
+        sessions.remove(username);
+    }
+
+    public void clearSessions() {
+        sessions.clear();
+    }
+
+    private void remember(String username, byte[] digest, long now) {
+        if (sessionTtlMillis <= 0) {
+            return;
+        }
+        if (sessions.size() >= MAX_SESSIONS) {
+            sessions.values().removeIf(session -> session.expiresAt <= now);
+            if (sessions.size() >= MAX_SESSIONS) {
+                sessions.clear();
+            }
+        }
+        sessions.put(username, new Session(digest, now + sessionTtlMillis));
+    }
+
+    // Keyed SHA-256 of the credentials: cheap to compare, never the password itself
+    private byte[] sessionDigest(String username, String password) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(sessionKey);
+            sha.update(username.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            sha.update(password.getBytes(StandardCharsets.UTF_8));
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Session {
+        private final byte[] digest;
+        private final long expiresAt;
+
+        private Session(byte[] digest, long expiresAt) {
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
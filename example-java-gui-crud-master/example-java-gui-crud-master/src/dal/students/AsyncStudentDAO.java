@@ -0,0 +1,112 @@
+package dal.students;
+
+import db.DatabaseExecutor;
+import models.Student;
+import models.StudentColumnStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Non-blocking view of a StudentRepository. Every call runs on the database executor
+// and completes its future there; UI callers hop back to the EDT themselves.
+public class AsyncStudentDAO {
+    private final StudentRepository dao;
+    private final Executor executor;
+    // When set, adds, updates and deletes go through it instead of the executor
+    private volatile StudentWriteBehindQueue writeBehind;
+
+    public AsyncStudentDAO(StudentRepository dao) {
+        this(dao, DatabaseExecutor.get());
+    }
+
+    public AsyncStudentDAO(StudentRepository dao, Executor executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    public StudentRepository getDao() {
+        return dao;
+    }
+
+    public void setWriteBehind(StudentWriteBehindQueue writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    // Completes once queued writes are committed; at once without write-behind
+    public CompletableFuture<Void> flush() {
+        StudentWriteBehindQueue queue = writeBehind;
+        return queue == null ? CompletableFuture.completedFuture(null) : queue.flush();
+    }
+
+    // Completes with the generated id, or -1 if the insert failed
+    public CompletableFuture<Integer> addStudent(Student student) {
+        StudentWriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            return queue.addStudent(student);
+        }
+        return CompletableFuture.supplyAsync(() -> dao.addStudent(student), executor);
+    }
+
+    public CompletableFuture<BulkInsertResult> addStudents(Collection<Student> students) {
+        return CompletableFuture.supplyAsync(() -> dao.addStudents(students), executor);
+    }
+
+    public CompletableFuture<List<Student>> getAllStudents() {
+        return CompletableFuture.supplyAsync(dao::getAllStudents, executor);
+    }
+
+    public CompletableFuture<StudentColumnStore> getAllStudentsColumnar() {
+        return CompletableFuture.supplyAsync(dao::getAllStudentsColumnar, executor);
+    }
+
+    public CompletableFuture<Void> loadProgramCatalog(ProgramCatalog catalog) {
+        return CompletableFuture.runAsync(() -> catalog.load(dao), executor);
+    }
+
+    public CompletableFuture<Long> currentChangeVersion() {
+        return CompletableFuture.supplyAsync(dao::currentChangeVersion, executor);
+    }
+
+    public CompletableFuture<Integer> countStudents() {
+        return CompletableFuture.supplyAsync(dao::countStudents, executor);
+    }
+
+    // Fetches one keyset page. When the page start is unknown (null) it is
+    // resolved from the row offset first, in the same background task.
+    public CompletableFuture<List<Student>> getStudentPage(Integer afterId, int offset, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            int start = afterId != null ? afterId : (offset == 0 ? 0 : dao.findIdAtOffset(offset - 1));
+            return start < 0 ? List.<Student>of() : dao.getStudentsAfter(start, limit);
+        }, executor);
+    }
+
+    public CompletableFuture<List<Student>> searchStudents(String text, String program, int limit) {
+        return CompletableFuture.supplyAsync(() -> dao.searchStudents(text, program, limit), executor);
+    }
+
+    public CompletableFuture<Student> getStudentById(int id) {
+        return CompletableFuture.supplyAsync(() -> dao.getStudentById(id), executor);
+    }
+
+    public CompletableFuture<Student> findByStudentNumber(String studentNumber) {
+        return CompletableFuture.supplyAsync(() -> dao.findByStudentNumber(studentNumber), executor);
+    }
+
+    public CompletableFuture<Boolean> updateStudent(Student student) {
+        StudentWriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            return queue.updateStudent(student);
+        }
+        return CompletableFuture.supplyAsync(() -> dao.updateStudent(student), executor);
+    }
+
+    public CompletableFuture<Boolean> deleteStudent(int id) {
+        StudentWriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            return queue.deleteStudent(id);
+        }
+        return CompletableFuture.supplyAsync(() -> dao.deleteStudent(id), executor);
+    }
+}
@@ -0,0 +1,41 @@
+package dal.students;
+
+// Outcome of StudentDAO.addStudents: the generated ids in input order and the load rate
+public class BulkInsertResult {
+    private final int[] ids;
+    private final int attempted;
+    private final long elapsedNanos;
+
+    public BulkInsertResult(int[] ids, int attempted, long elapsedNanos) {
+        this.ids = ids;
+        this.attempted = attempted;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Ids of the inserted rows; shorter than the input if a chunk failed
+    public int[] getIds() {
+        return ids;
+    }
+
+    public int getInsertedCount() {
+        return ids.length;
+    }
+
+    public boolean isComplete() {
+        return ids.length == attempted;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : ids.length * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inserted %d of %d students in %.1f ms (%.0f rows/sec)",
+                ids.length, attempted, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,274 @@
+package dal.students;
+
+import metrics.Metrics;
+import models.Student;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// StudentDAO with a bounded LRU read-through cache for single-student
+// lookups by id and by student number. Writes made through this DAO update
+// or drop the cached copy after they commit, so repeated lookups of the hot
+// working set don't touch SQLite. Cached students are copied in and out, so
+// callers can't change them behind the cache's back.
+public class CachingStudentDAO extends StudentDAO implements StudentCacheMXBean {
+    public static final int DEFAULT_MAX_ENTRIES = Integer.getInteger("students.cache.size", 10_000);
+    private static final String MBEAN = "type=StudentCache";
+
+    // The cache currently published over JMX; guarded by CachingStudentDAO.class
+    private static CachingStudentDAO published;
+
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by 'this'. Least recently used first.
+    private final LinkedHashMap<Integer, Student> byId;
+    private final Map<String, Integer> idByNumber = new HashMap<>();
+    // Bumped by every write, so a lookup that raced with one doesn't cache what it read
+    private long writeVersion;
+
+    public CachingStudentDAO() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingStudentDAO(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.byId = new LinkedHashMap<Integer, Student>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Student> eldest) {
+                if (size() <= CachingStudentDAO.this.maxEntries) {
+                    return false;
+                }
+                idByNumber.remove(eldest.getValue().getStudentNumber(), eldest.getKey());
+                evictions.increment();
+                return true;
+            }
+        };
+        synchronized (CachingStudentDAO.class) {
+            Metrics.register(MBEAN, this); // Replaces the previous page's cache
+            published = this;
+        }
+    }
+
+    // Takes this cache off JMX when its page closes, so the MBean server doesn't
+    // keep it reachable. A newer cache's registration is left alone.
+    public void unpublish() {
+        synchronized (CachingStudentDAO.class) {
+            if (published == this) {
+                Metrics.unregister(MBEAN);
+                published = null;
+            }
+        }
+    }
+
+    @Override
+    public Student getStudentById(int id) {
+        long version;
+        synchronized (this) {
+            Student cached = byId.get(id);
+            if (cached != null) {
+                hits.increment();
+                return copy(cached);
+            }
+            version = writeVersion;
+        }
+        misses.increment();
+        Student loaded = super.getStudentById(id);
+        if (loaded != null) {
+            cache(loaded, false, version);
+        }
+        return loaded;
+    }
+
+    @Override
+    public Student findByStudentNumber(String studentNumber) {
+        long version;
+        synchronized (this) {
+            Integer id = idByNumber.get(studentNumber);
+            Student cached = id == null ? null : byId.get(id);
+            if (cached != null) {
+                hits.increment();
+                return copy(cached);
+            }
+            version = writeVersion;
+        }
+        misses.increment();
+        Student loaded = super.findByStudentNumber(studentNumber);
+        if (loaded != null) {
+            cache(loaded, true, version);
+        }
+        return loaded;
+    }
+
+    private synchronized void cache(Student student, boolean byNumber, long version) {
+        if (version != writeVersion) {
+            return; // A write landed while we were reading; what we read may be stale
+        }
+        byId.put(student.getId(), copy(student));
+        if (byNumber) {
+            idByNumber.put(student.getStudentNumber(), student.getId());
+        }
+    }
+
+    @Override
+    public int addStudent(Student student) {
+        int id = super.addStudent(student);
+        if (id > 0) {
+            synchronized (this) {
+                writeVersion++;
+                added(id, student);
+            }
+        }
+        return id;
+    }
+
+    @Override
+    public BulkInsertResult addStudents(Collection<Student> students, int chunkSize) {
+        BulkInsertResult result = super.addStudents(students, chunkSize);
+        synchronized (this) {
+            writeVersion++;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        boolean changed = super.updateStudent(student);
+        synchronized (this) {
+            writeVersion++;
+            if (changed) {
+                updated(student);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean deleteStudent(int id) {
+        boolean deleted = super.deleteStudent(id);
+        synchronized (this) {
+            writeVersion++;
+            invalidateLocked(id);
+        }
+        return deleted;
+    }
+
+    // Write-behind batches go through here rather than the single-row methods
+    @Override
+    int[] applyMutations(List<StudentMutation> mutations) throws SQLException {
+        int[] results;
+        try {
+            results = super.applyMutations(mutations);
+        } finally {
+            synchronized (this) {
+                writeVersion++;
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < results.length; i++) {
+                StudentMutation mutation = mutations.get(i);
+                switch (mutation.getKind()) {
+                    case ADD:
+                        if (results[i] > 0) {
+                            added(results[i], mutation.getStudent());
+                        }
+                        break;
+                    case UPDATE:
+                        if (results[i] > 0) {
+                            updated(mutation.getStudent());
+                        }
+                        break;
+                    case DELETE:
+                        invalidateLocked(mutation.getId());
+                        break;
+                }
+            }
+        }
+        return results;
+    }
+
+    // Caller holds 'this'. Not mapped by number: an older student may share it and be the one lookups return.
+    private void added(int id, Student student) {
+        byId.put(id, copy(student));
+    }
+
+    // Caller holds 'this'. Only program and level are written, so a cached copy is patched in place.
+    private void updated(Student student) {
+        Student cached = byId.get(student.getId());
+        if (cached != null) {
+            cached.setProgram(student.getProgram());
+            cached.setLevel(student.getLevel());
+        }
+    }
+
+    private void invalidateLocked(int id) {
+        Student removed = byId.remove(id);
+        if (removed != null) {
+            idByNumber.remove(removed.getStudentNumber(), id);
+        }
+    }
+
+    // Drops everything, e.g. after another process changed the table
+    @Override
+    public synchronized void clear() {
+        writeVersion++;
+        byId.clear();
+        idByNumber.clear();
+    }
+
+    // Drops one student, e.g. when a change made elsewhere is detected
+    public synchronized void invalidate(int id) {
+        writeVersion++;
+        invalidateLocked(id);
+    }
+
+    private static Student copy(Student student) {
+        return new Student(student.getId(), student.getStudentNumber(), student.getFirstName(),
+                student.getLastName(), student.getProgram(), student.getLevel());
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return byId.size();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StudentCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRatio=%.3f]",
+                getSize(), maxEntries, getHits(), getMisses(), getEvictions(), getHitRatio());
+    }
+}
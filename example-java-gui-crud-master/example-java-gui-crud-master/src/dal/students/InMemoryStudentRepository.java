@@ -0,0 +1,635 @@
+package dal.students;
+
+import models.ProgramDictionary;
+import models.Student;
+import models.StudentColumnStore;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// StudentRepository held entirely in the heap (-Dstudents.backend=memory), so
+// the UI and the benchmarks can run without disk I/O. Nothing is persisted.
+//
+//   rows       primary index: id -> student
+//   order      every id, sorted, for keyset pages, offsets and scans in id order
+//   byNumber   lower-cased student number -> ids, for exact lookups
+//   byWord     words of the student number and names (see tokenize) -> ids,
+//              sorted so a search word is a prefix range
+//   byProgram  ProgramDictionary code -> ids, for program filters and counts
+//
+// Id lists are sorted int arrays. Reads share a read lock, writes take the
+// write lock, and listeners are called once it is released. Scans copy
+// 'fetchSize' rows per lock hold, so a slow consumer never blocks writers.
+public class InMemoryStudentRepository implements StudentRepository {
+    // A search word matching more than this share of all rows is answered by
+    // scanning in id order, which stops as soon as 'limit' rows are found
+    private static final int SCAN_FRACTION = 8;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Student> rows = new HashMap<>();
+    private final IdList order = new IdList();
+    private final TreeMap<String, IdList> byNumber = new TreeMap<>();
+    private final TreeMap<String, IdList> byWord = new TreeMap<>();
+    private IdList[] byProgram = new IdList[16];
+    // Like AUTOINCREMENT, ids are never reused
+    private int lastId;
+    private long changeVersion;
+
+    private final List<StudentChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void addChangeListener(StudentChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(StudentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public int addStudent(Student student) {
+        if (!isComplete(student)) {
+            return -1;
+        }
+        Student stored;
+        lock.writeLock().lock();
+        try {
+            if (findLocked(student.getStudentNumber()) != null) {
+                return DUPLICATE_NUMBER; // Unique index in the SQLite schema
+            }
+            stored = insertLocked(student);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        student.setId(stored.getId());
+        for (StudentChangeListener listener : listeners) {
+            listener.studentAdded(student);
+        }
+        return stored.getId();
+    }
+
+    @Override
+    public BulkInsertResult addStudents(Collection<Student> students) {
+        return addStudents(students, StudentDAO.DEFAULT_BATCH_SIZE);
+    }
+
+    // Stops at the first incomplete or duplicate student, like a failed SQLite chunk; whole chunks before it stay
+    @Override
+    public BulkInsertResult addStudents(Collection<Student> students, int chunkSize) {
+        long start = System.nanoTime();
+        int[] ids = new int[students.size()];
+        int inserted = 0;
+        boolean failed = false;
+        List<Student> chunk = new ArrayList<>(Math.min(chunkSize, students.size()));
+        for (Student student : students) {
+            chunk.add(student);
+            if (chunk.size() == chunkSize) {
+                failed = !insertChunk(chunk, ids, inserted);
+                if (failed) {
+                    break;
+                }
+                inserted += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!failed && !chunk.isEmpty() && insertChunk(chunk, ids, inserted)) {
+            inserted += chunk.size();
+        }
+        int[] result = inserted == ids.length ? ids : Arrays.copyOf(ids, inserted);
+        return new BulkInsertResult(result, students.size(), System.nanoTime() - start);
+    }
+
+    private boolean insertChunk(List<Student> chunk, int[] ids, int offset) {
+        for (Student student : chunk) {
+            if (!isComplete(student)) {
+                return false;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            Set<String> numbers = new HashSet<>();
+            for (Student student : chunk) {
+                if (!numbers.add(student.getStudentNumber()) || findLocked(student.getStudentNumber()) != null) {
+                    return false;
+                }
+            }
+            for (Student student : chunk) {
+                student.setId(insertLocked(student).getId());
+                ids[offset++] = student.getId();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Student student : chunk) {
+            for (StudentChangeListener listener : listeners) {
+                listener.studentAdded(student);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        List<Student> students = new ArrayList<>();
+        forEachStudent(StudentDAO.DEFAULT_FETCH_SIZE, students::add);
+        return students;
+    }
+
+    @Override
+    public StudentColumnStore getAllStudentsColumnar() {
+        StudentColumnStore store = new StudentColumnStore();
+        forEachStudent(StudentDAO.DEFAULT_FETCH_SIZE, store::add);
+        return store;
+    }
+
+    @Override
+    public int forEachStudent(int fetchSize, Consumer<? super Student> consumer) {
+        int count = 0;
+        int afterId = 0;
+        List<Student> page;
+        do {
+            page = getStudentsAfter(afterId, Math.max(1, fetchSize));
+            for (Student student : page) {
+                consumer.accept(student);
+            }
+            count += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == Math.max(1, fetchSize));
+        return count;
+    }
+
+    @Override
+    public int forEachRow(int fetchSize, StudentRowHandler handler) {
+        return forEachStudent(fetchSize, student -> handler.row(student.getId(),
+                student.getStudentNumber().getBytes(StandardCharsets.UTF_8),
+                student.getFirstName().getBytes(StandardCharsets.UTF_8),
+                student.getLastName().getBytes(StandardCharsets.UTF_8),
+                student.getProgramCode(),
+                student.getLevel()));
+    }
+
+    // Nothing is held open, so the rows are copied up front
+    @Override
+    public Stream<Student> streamStudents(int fetchSize) {
+        return getAllStudents().stream();
+    }
+
+    @Override
+    public int countStudents() {
+        lock.readLock().lock();
+        try {
+            return order.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> countStudentsByProgram() {
+        TreeMap<String, Integer> counts = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            for (int code = 0; code < byProgram.length; code++) {
+                if (byProgram[code] != null && byProgram[code].size() > 0) {
+                    counts.put(ProgramDictionary.nameOf(code), byProgram[code].size());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new LinkedHashMap<>(counts);
+    }
+
+    @Override
+    public List<Student> getStudentsAfter(int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = order.indexAfter(afterId);
+            int to = Math.min(order.size(), from + Math.max(0, limit));
+            List<Student> students = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                students.add(copy(rows.get(order.get(i))));
+            }
+            return students;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int findIdAtOffset(int offset) {
+        lock.readLock().lock();
+        try {
+            return offset >= 0 && offset < order.size() ? order.get(offset) : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Same matching as the SQLite FTS5 path (students_fts and toFtsQuery): the
+    // number and names are split into words, and each search word, split the
+    // same way, must match a run of consecutive words in one field with its
+    // last part as a prefix. So "0000123" finds 2024-0000123, as does "2024-00".
+    @Override
+    public List<Student> searchStudents(String text, String program, int limit) {
+        String query = text == null ? "" : text.trim();
+        List<String[]> phrases = new ArrayList<>();
+        for (String word : query.isEmpty() ? new String[0] : query.split("\\s+")) {
+            List<String> parts = tokenize(word);
+            if (!parts.isEmpty()) {
+                phrases.add(parts.toArray(new String[0]));
+            }
+        }
+        boolean byProgramOnly = program != null && !program.isEmpty();
+        int programCode = byProgramOnly ? ProgramDictionary.find(program) : ProgramDictionary.NONE;
+        List<Student> students = new ArrayList<>();
+        if (byProgramOnly && programCode == ProgramDictionary.NONE) {
+            return students; // No student has ever had that program
+        }
+        lock.readLock().lock();
+        try {
+            IdList candidates = order;
+            if (byProgramOnly) {
+                candidates = programCode < byProgram.length && byProgram[programCode] != null
+                        ? byProgram[programCode] : new IdList();
+            }
+            // Drive the search from the most selective word part (a whole word, or a
+            // prefix for the last part of a search word), unless even that one
+            // matches a large part of the table
+            String driver = null;
+            boolean driverIsPrefix = false;
+            int driverCount = candidates.size();
+            for (String[] phrase : phrases) {
+                for (int i = 0; i < phrase.length; i++) {
+                    boolean prefix = i == phrase.length - 1;
+                    IdList exact = prefix ? null : byWord.get(phrase[i]);
+                    int count = prefix ? countPrefix(byWord, phrase[i]) : exact == null ? 0 : exact.size();
+                    if (count < driverCount) {
+                        driver = phrase[i];
+                        driverIsPrefix = prefix;
+                        driverCount = count;
+                    }
+                }
+            }
+            if (driver != null && driverCount <= order.size() / SCAN_FRACTION) {
+                candidates = driverIsPrefix ? unionPrefix(driver) : byWord.getOrDefault(driver, new IdList());
+            }
+            for (int i = 0; i < candidates.size() && students.size() < limit; i++) {
+                Student student = rows.get(candidates.get(i));
+                if ((!byProgramOnly || student.getProgramCode() == programCode) && matchesAll(student, phrases)) {
+                    students.add(copy(student));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return students;
+    }
+
+    @Override
+    public Student getStudentById(int id) {
+        lock.readLock().lock();
+        try {
+            Student student = rows.get(id);
+            return student == null ? null : copy(student);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Student findByStudentNumber(String studentNumber) {
+        lock.readLock().lock();
+        try {
+            Student student = findLocked(studentNumber);
+            return student == null ? null : copy(student);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds a lock. Exact-case match, like the SQLite lookup.
+    private Student findLocked(String studentNumber) {
+        IdList ids = byNumber.get(studentNumber.toLowerCase(Locale.ROOT));
+        for (int i = 0; ids != null && i < ids.size(); i++) {
+            Student student = rows.get(ids.get(i));
+            if (student.getStudentNumber().equals(studentNumber)) {
+                return student;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean updateStudent(Student student) {
+        if (student.getProgramCode() == ProgramDictionary.NONE) {
+            return false; // NOT NULL in the SQLite schema
+        }
+        Student before;
+        Student after;
+        lock.writeLock().lock();
+        try {
+            before = rows.get(student.getId());
+            if (before == null) {
+                return false;
+            }
+            after = new Student(before.getId(), before.getStudentNumber(), before.getFirstName(),
+                    before.getLastName(), student.getProgram(), student.getLevel());
+            programIds(before.getProgramCode()).remove(before.getId());
+            programIds(after.getProgramCode()).add(after.getId());
+            rows.put(after.getId(), after);
+            changeVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (StudentChangeListener listener : listeners) {
+            listener.studentUpdated(copy(before), copy(after));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean deleteStudent(int id) {
+        Student before;
+        lock.writeLock().lock();
+        try {
+            before = rows.remove(id);
+            if (before == null) {
+                return false;
+            }
+            order.remove(id);
+            removeFrom(byNumber, before.getStudentNumber().toLowerCase(Locale.ROOT), id);
+            for (String word : indexWords(before)) {
+                removeFrom(byWord, word, id);
+            }
+            programIds(before.getProgramCode()).remove(id);
+            changeVersion++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (StudentChangeListener listener : listeners) {
+            listener.studentDeleted(copy(before));
+        }
+        return true;
+    }
+
+    // Counts every write, so versions behave like the SQLite change feed's
+    @Override
+    public long currentChangeVersion() {
+        lock.readLock().lock();
+        try {
+            return changeVersion;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every write goes through this instance and its listeners, so there are never remote changes to report
+    @Override
+    public StudentChangeSet changesSince(long version, int limit) {
+        return new StudentChangeSet(version, Math.max(version, currentChangeVersion()), List.of(), List.of(), false);
+    }
+
+    @Override
+    public void pruneChangeLog(int keep) {
+        // No change log is kept
+    }
+
+    // Caller holds the write lock
+    private Student insertLocked(Student student) {
+        Student stored = new Student(++lastId, student.getStudentNumber(), student.getFirstName(),
+                student.getLastName(), student.getProgram(), student.getLevel());
+        rows.put(stored.getId(), stored);
+        order.add(stored.getId());
+        byNumber.computeIfAbsent(stored.getStudentNumber().toLowerCase(Locale.ROOT), key -> new IdList())
+                .add(stored.getId());
+        for (String word : indexWords(stored)) {
+            byWord.computeIfAbsent(word, key -> new IdList()).add(stored.getId());
+        }
+        programIds(stored.getProgramCode()).add(stored.getId());
+        changeVersion++;
+        return stored;
+    }
+
+    // Caller holds the write lock
+    private IdList programIds(int code) {
+        if (code >= byProgram.length) {
+            byProgram = Arrays.copyOf(byProgram, Math.max(code + 1, byProgram.length * 2));
+        }
+        if (byProgram[code] == null) {
+            byProgram[code] = new IdList();
+        }
+        return byProgram[code];
+    }
+
+    private static void removeFrom(Map<String, IdList> index, String key, int id) {
+        IdList ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.size() == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static NavigableMap<String, IdList> withPrefix(TreeMap<String, IdList> index, String prefix) {
+        return index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static int countPrefix(TreeMap<String, IdList> index, String prefix) {
+        int count = 0;
+        for (IdList ids : withPrefix(index, prefix).values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    // Ids under every key starting with 'prefix', in id order. A single
+    // matching key (e.g. a whole surname) is returned as is, without copying.
+    private IdList unionPrefix(String prefix) {
+        List<IdList> lists = new ArrayList<>(withPrefix(byWord, prefix).values());
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        IdList union = new IdList();
+        for (IdList ids : lists) {
+            union.addAll(ids);
+        }
+        union.sortDistinct();
+        return union;
+    }
+
+    private static boolean matchesAll(Student student, List<String[]> phrases) {
+        if (phrases.isEmpty()) {
+            return true;
+        }
+        List<String> number = tokenize(student.getStudentNumber());
+        List<String> firstName = tokenize(student.getFirstName());
+        List<String> lastName = tokenize(student.getLastName());
+        for (String[] phrase : phrases) {
+            if (!containsPhrase(number, phrase) && !containsPhrase(firstName, phrase)
+                    && !containsPhrase(lastName, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether 'phrase' occurs as consecutive words, its last part only as a prefix
+    private static boolean containsPhrase(List<String> words, String[] phrase) {
+        int last = phrase.length - 1;
+        for (int start = 0; start + last < words.size(); start++) {
+            boolean match = words.get(start + last).startsWith(phrase[last]);
+            for (int i = 0; match && i < last; i++) {
+                match = words.get(start + i).equals(phrase[i]);
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Distinct words of the student number and both names
+    private static List<String> indexWords(Student student) {
+        List<String> words = new ArrayList<>(5);
+        for (String field : new String[]{student.getStudentNumber(), student.getFirstName(), student.getLastName()}) {
+            for (String word : tokenize(field)) {
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    // Splits like FTS5's default unicode61 tokenizer: words are runs of letters
+    // and digits, lower-cased and with accents removed
+    private static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>(2);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(fold(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static String fold(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 127) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+
+    // The SQLite schema declares every column NOT NULL
+    private static boolean isComplete(Student student) {
+        return student.getStudentNumber() != null && student.getFirstName() != null
+                && student.getLastName() != null && student.getProgramCode() != ProgramDictionary.NONE;
+    }
+
+    // Callers get their own objects, as they would from a query
+    private static Student copy(Student student) {
+        return new Student(student.getId(), student.getStudentNumber(), student.getFirstName(),
+                student.getLastName(), student.getProgram(), student.getLevel());
+    }
+
+    // Ids kept as a sorted int array. New ids are the largest so far, so adds append.
+    private static final class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return ids[index];
+        }
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        // Position of the first id greater than 'id'
+        int indexAfter(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            return at >= 0 ? at + 1 : -at - 1;
+        }
+
+        // Appends without keeping order; call sortDistinct() afterwards
+        void addAll(IdList other) {
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(size + other.size, ids.length * 2));
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+
+        void sortDistinct() {
+            Arrays.sort(ids, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            size = distinct;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dal.students;
+
+import models.ProgramDictionary;
+import models.Student;
+import models.StudentColumnStore;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Distinct program names with their student counts. Seeded from a GROUP BY
+// query and then kept current from StudentDAO change events, so nobody has
+// to rescan the table to fill the program filter.
+public class ProgramCatalog implements StudentChangeListener {
+    // A reload that keeps racing with writes gives up and keeps its last result
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final TreeMap<String, Integer> counts = new TreeMap<>();
+    // Bumped by every delta (guarded by 'this'), so a reload can tell whether
+    // a write's event arrived while its query was running
+    private long deltaGeneration;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Replaces the catalog with counts read from the database
+    public void reset(Map<String, Integer> programCounts) {
+        synchronized (this) {
+            counts.clear();
+            counts.putAll(programCounts);
+        }
+        fireChanged();
+    }
+
+    // Re-reads the counts from the database. Events are delivered after the write
+    // commits, so an event that arrives while the query runs may or may not be in
+    // its result: applying it could count the write twice and dropping it could
+    // lose it. The query is repeated instead, until one runs without interleaved
+    // events; events before or after that query are already handled correctly.
+    public void load(StudentRepository dao) {
+        for (int attempt = 1; ; attempt++) {
+            long generation;
+            synchronized (this) {
+                generation = deltaGeneration;
+            }
+            Map<String, Integer> programCounts = dao.countStudentsByProgram();
+            synchronized (this) {
+                if (generation != deltaGeneration && attempt < MAX_RELOAD_ATTEMPTS) {
+                    continue;
+                }
+                counts.clear();
+                counts.putAll(programCounts);
+            }
+            fireChanged();
+            return;
+        }
+    }
+
+    // Position in the delta stream, for load(StudentColumnStore, long)
+    public synchronized long currentGeneration() {
+        return deltaGeneration;
+    }
+
+    // Counts from loaded rows instead of the database, so the catalog matches
+    // exactly what a table shows and later deltas to it keep the counts right.
+    // 'generation' is currentGeneration() from before the rows were read. If a
+    // delta has arrived since, its write may or may not be in 'store' (see
+    // load(StudentRepository)), so the catalog is left alone and false returned;
+    // the caller reloads it some other way.
+    public boolean load(StudentColumnStore store, long generation) {
+        int[] countsByCode = new int[ProgramDictionary.size()];
+        for (int row = 0; row < store.size(); row++) {
+            countsByCode[store.getProgramCode(row)]++;
+        }
+        synchronized (this) {
+            if (generation != deltaGeneration) {
+                return false;
+            }
+            counts.clear();
+            for (int code = 0; code < countsByCode.length; code++) {
+                if (countsByCode[code] > 0) {
+                    counts.put(ProgramDictionary.nameOf(code), countsByCode[code]);
+                }
+            }
+        }
+        fireChanged();
+        return true;
+    }
+
+    // Programs in name order with their counts
+    public synchronized Map<String, Integer> snapshot() {
+        return new LinkedHashMap<>(counts);
+    }
+
+    public synchronized int getCount(String program) {
+        return counts.getOrDefault(program, 0);
+    }
+
+    public synchronized int getTotal() {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Runs on the thread that changed the catalog
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        adjust(student.getProgram(), 1);
+        fireChanged();
+    }
+
+    @Override
+    public void studentUpdated(Student before, Student after) {
+        if (before.getProgramCode() == after.getProgramCode()) {
+            return;
+        }
+        adjust(before.getProgram(), -1);
+        adjust(after.getProgram(), 1);
+        fireChanged();
+    }
+
+    @Override
+    public void studentDeleted(Student before) {
+        adjust(before.getProgram(), -1);
+        fireChanged();
+    }
+
+    private synchronized void adjust(String program, int delta) {
+        deltaGeneration++;
+        int count = counts.getOrDefault(program, 0) + delta;
+        if (count > 0) {
+            counts.put(program, count);
+        } else {
+            counts.remove(program);
+        }
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+}
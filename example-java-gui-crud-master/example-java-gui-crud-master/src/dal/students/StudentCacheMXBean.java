@@ -0,0 +1,18 @@
+package dal.students;
+
+// JMX view of the CachingStudentDAO read-through cache
+public interface StudentCacheMXBean {
+    int getSize();
+
+    int getMaxSize();
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    double getHitRatio();
+
+    void clear();
+}
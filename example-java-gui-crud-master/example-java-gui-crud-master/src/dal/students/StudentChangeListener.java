@@ -0,0 +1,13 @@
+package dal.students;
+
+import models.Student;
+
+// Notified after a student mutation has been committed. Callbacks run on the
+// thread that made the change (usually a database worker), not the EDT.
+public interface StudentChangeListener {
+    void studentAdded(Student student);
+
+    void studentUpdated(Student before, Student after);
+
+    void studentDeleted(Student before);
+}
@@ -0,0 +1,199 @@
+package dal.students;
+
+import models.Student;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Follows the student_changes feed so edits made by other clients on the
+// same users.db show up without a full reload. Every poll asks
+// StudentDAO.changesSince for what changed after the last seen version and
+// hands the result to a consumer on the delivery executor (the EDT for
+// StudentPage). Changes this process made itself are already applied by the
+// caller, so they are filtered out; a reset set means the caller fell
+// behind the pruned log and should reload.
+public class StudentChangePoller implements StudentChangeListener, AutoCloseable {
+    public static final long DEFAULT_INTERVAL_MS = Long.getLong("students.pollIntervalMs", 2000);
+    public static final int POLL_LIMIT = Integer.getInteger("students.pollLimit", 1000);
+    public static final int CHANGE_LOG_KEEP = Integer.getInteger("students.changeLog.keep", 50_000);
+
+    // Marks a local delete in localWrites
+    private static final Student DELETED = new Student();
+
+    private final StudentRepository dao;
+    private final Executor deliveryExecutor;
+    private final Consumer<StudentChangeSet> consumer;
+    private final long intervalMs;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by 'this'. version < 0 means no baseline yet, so nothing is polled.
+    private long version = -1;
+    private int generation;
+    // Latest state of students changed through our own DAO and not yet seen in the feed
+    private final Map<Integer, Student> localWrites = new HashMap<>();
+
+    public StudentChangePoller(StudentRepository dao, Executor deliveryExecutor, Consumer<StudentChangeSet> consumer) {
+        this(dao, deliveryExecutor, consumer, DEFAULT_INTERVAL_MS);
+    }
+
+    public StudentChangePoller(StudentRepository dao, Executor deliveryExecutor, Consumer<StudentChangeSet> consumer,
+                               long intervalMs) {
+        this.dao = dao;
+        this.deliveryExecutor = deliveryExecutor;
+        this.consumer = consumer;
+        this.intervalMs = intervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "student-change-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dao.addChangeListener(this);
+    }
+
+    public void start() {
+        scheduler.execute(() -> dao.pruneChangeLog(CHANGE_LOG_KEEP));
+        scheduler.scheduleWithFixedDelay(this::pollSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Polls right away instead of waiting for the next interval
+    public void pollNow() {
+        scheduler.execute(this::pollSafely);
+    }
+
+    // Call on the delivery thread after a full load that reflects 'baseline'.
+    // Deliveries already in flight for the old data are dropped. localWrites
+    // is kept: our writes that landed after 'baseline' will still show up.
+    public synchronized void resetTo(long baseline) {
+        version = baseline;
+        generation++;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        dao.removeChangeListener(this);
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // Keep polling; a failed run must not cancel the schedule
+        }
+    }
+
+    private void poll() {
+        StudentChangeSet changes;
+        do {
+            long from;
+            int gen;
+            synchronized (this) {
+                from = version;
+                gen = generation;
+            }
+            if (from < 0) {
+                return;
+            }
+            changes = dao.changesSince(from, POLL_LIMIT);
+            if (changes == null) {
+                return; // Logged by the DAO; try again next round
+            }
+            synchronized (this) {
+                if (gen != generation || from != version) {
+                    return; // Reset while we were querying
+                }
+                version = changes.getToVersion();
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            if (dao instanceof CachingStudentDAO) {
+                CachingStudentDAO cache = (CachingStudentDAO) dao;
+                for (Student student : changes.getChanged()) {
+                    cache.invalidate(student.getId());
+                }
+                for (int id : changes.getDeleted()) {
+                    cache.invalidate(id);
+                }
+            }
+            StudentChangeSet delivered = changes;
+            deliveryExecutor.execute(() -> deliver(delivered, gen));
+        } while (changes.isTruncated());
+    }
+
+    private void deliver(StudentChangeSet changes, int gen) {
+        StudentChangeSet remote;
+        synchronized (this) {
+            if (gen != generation) {
+                return;
+            }
+            // Filtered here rather than when polled, so our own listener calls have surely run
+            remote = changes.isReset() ? changes : withoutLocalWrites(changes);
+        }
+        if (!remote.isEmpty()) {
+            consumer.accept(remote);
+        }
+    }
+
+    // Caller holds 'this'
+    private StudentChangeSet withoutLocalWrites(StudentChangeSet changes) {
+        List<Student> changed = new ArrayList<>();
+        for (Student student : changes.getChanged()) {
+            Student local = localWrites.remove(student.getId());
+            if (local == null || local == DELETED || !sameState(local, student)) {
+                changed.add(student);
+            }
+        }
+        List<Integer> deleted = new ArrayList<>();
+        for (int id : changes.getDeleted()) {
+            if (localWrites.remove(id) != DELETED) {
+                deleted.add(id);
+            }
+        }
+        return new StudentChangeSet(changes.getFromVersion(), changes.getToVersion(), changed, deleted,
+                changes.isTruncated());
+    }
+
+    private static boolean sameState(Student a, Student b) {
+        return a.getProgramCode() == b.getProgramCode()
+                && a.getLevel() == b.getLevel()
+                && a.getStudentNumber().equals(b.getStudentNumber())
+                && a.getFirstName().equals(b.getFirstName())
+                && a.getLastName().equals(b.getLastName());
+    }
+
+    // Local writes, reported by StudentDAO after commit
+
+    @Override
+    public synchronized void studentAdded(Student student) {
+        if (version >= 0) {
+            localWrites.put(student.getId(), copy(student));
+        }
+    }
+
+    @Override
+    public synchronized void studentUpdated(Student before, Student after) {
+        if (version >= 0) {
+            localWrites.put(after.getId(), copy(after));
+        }
+    }
+
+    @Override
+    public synchronized void studentDeleted(Student before) {
+        if (version >= 0) {
+            localWrites.put(before.getId(), DELETED);
+        }
+    }
+
+    private static Student copy(Student student) {
+        return new Student(student.getId(), student.getStudentNumber(), student.getFirstName(),
+                student.getLastName(), student.getProgram(), student.getLevel());
+    }
+}
@@ -0,0 +1,67 @@
+package dal.students;
+
+import models.Student;
+
+import java.util.List;
+
+// Result of StudentDAO.changesSince: the current rows of students changed
+// after 'fromVersion' and the ids of deleted ones, up to 'toVersion'
+public class StudentChangeSet {
+    private final long fromVersion;
+    private final long toVersion;
+    private final List<Student> changed;
+    private final List<Integer> deleted;
+    private final boolean truncated;
+    private final boolean reset;
+
+    public StudentChangeSet(long fromVersion, long toVersion, List<Student> changed, List<Integer> deleted,
+                            boolean truncated) {
+        this(fromVersion, toVersion, changed, deleted, truncated, false);
+    }
+
+    private StudentChangeSet(long fromVersion, long toVersion, List<Student> changed, List<Integer> deleted,
+                             boolean truncated, boolean reset) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.changed = changed;
+        this.deleted = deleted;
+        this.truncated = truncated;
+        this.reset = reset;
+    }
+
+    // The log no longer reaches back to 'fromVersion'; reload everything
+    static StudentChangeSet reset(long fromVersion) {
+        return new StudentChangeSet(fromVersion, fromVersion, List.of(), List.of(), false, true);
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    // Version to ask from next time
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    // Added or updated students as they are now
+    public List<Student> getChanged() {
+        return changed;
+    }
+
+    public List<Integer> getDeleted() {
+        return deleted;
+    }
+
+    // More changes are waiting past 'toVersion'
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deleted.isEmpty() && !reset;
+    }
+}
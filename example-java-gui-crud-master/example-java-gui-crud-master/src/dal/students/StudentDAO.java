@@ -1,95 +1,847 @@
 package dal.students;
 
 import db.Database;
+import metrics.Metrics;
+import metrics.OperationMetrics;
+import models.ProgramDictionary;
 import models.Student;
+import models.StudentColumnStore;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class StudentDAO {
-    public StudentDAO() {
-        createTable();
+public class StudentDAO implements StudentRepository {
+    // Rows the driver fetches per round trip when scanning the whole table
+    public static final int DEFAULT_FETCH_SIZE = Integer.getInteger("students.fetchSize", 500);
+    // Rows per transaction for bulk inserts
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("students.batchSize", 1000);
+    private static final String SELECT_ALL_SQL = "SELECT * FROM students ORDER BY id";
+    // Set -Dstudents.fts=false to search with indexed LIKE prefixes only
+    private static final boolean FTS_REQUESTED = Boolean.parseBoolean(System.getProperty("students.fts", "true"));
+    private static volatile Boolean fullTextSearch;
+    // Rows carry program_id (schema v4), so reads can skip decoding the program text;
+    // -Dstudents.programIds=false reads the program column instead
+    private static final boolean READ_PROGRAM_IDS = Boolean.parseBoolean(System.getProperty("students.programIds", "true"));
+    // programs.id -> ProgramDictionary code (NONE where unknown); reloaded when an unseen id is read
+    private static volatile int[] programCodeById = new int[0];
+    private static final String INSERT_SQL = "INSERT INTO students(student_number, first_name, last_name, program, level) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE students SET program = ?, level = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM students WHERE id = ?";
+
+    // Latency, rows and failures per method, published over JMX
+    private static final OperationMetrics ADD_METRICS = Metrics.operation("StudentDAO", "addStudent");
+    private static final OperationMetrics BULK_ADD_METRICS = Metrics.operation("StudentDAO", "addStudents");
+    private static final OperationMetrics SCAN_METRICS = Metrics.operation("StudentDAO", "forEachStudent");
+    private static final OperationMetrics STREAM_METRICS = Metrics.operation("StudentDAO", "streamStudents");
+    private static final OperationMetrics ROWS_METRICS = Metrics.operation("StudentDAO", "forEachRow");
+    private static final OperationMetrics COUNT_METRICS = Metrics.operation("StudentDAO", "countStudents");
+    private static final OperationMetrics COUNT_BY_PROGRAM_METRICS = Metrics.operation("StudentDAO", "countStudentsByProgram");
+    private static final OperationMetrics PAGE_METRICS = Metrics.operation("StudentDAO", "getStudentsAfter");
+    private static final OperationMetrics OFFSET_METRICS = Metrics.operation("StudentDAO", "findIdAtOffset");
+    private static final OperationMetrics SEARCH_METRICS = Metrics.operation("StudentDAO", "searchStudents");
+    private static final OperationMetrics GET_BY_ID_METRICS = Metrics.operation("StudentDAO", "getStudentById");
+    private static final OperationMetrics GET_BY_NUMBER_METRICS = Metrics.operation("StudentDAO", "findByStudentNumber");
+    private static final OperationMetrics UPDATE_METRICS = Metrics.operation("StudentDAO", "updateStudent");
+    private static final OperationMetrics DELETE_METRICS = Metrics.operation("StudentDAO", "deleteStudent");
+    private static final OperationMetrics MUTATIONS_METRICS = Metrics.operation("StudentDAO", "applyMutations");
+    private static final OperationMetrics CHANGES_METRICS = Metrics.operation("StudentDAO", "changesSince");
+
+    private final List<StudentChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Whether searches go through students_fts; decided on first search, once the schema is migrated
+    private static boolean useFullTextSearch() {
+        Boolean enabled = fullTextSearch;
+        if (enabled == null) {
+            enabled = FTS_REQUESTED && hasFullTextIndex();
+            fullTextSearch = enabled;
+        }
+        return enabled;
     }
-    // Method that creates a table
-    private void createTable() {
-        String sql = "CREATE TABLE IF NOT EXISTS students (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "student_number TEXT NOT NULL," +
-                "first_name TEXT NOT NULL," +
-                "last_name TEXT NOT NULL," +
-                "program TEXT NOT NULL," +
-                "level INTEGER NOT NULL)";
+
+    // The FTS5 migration is optional, so the table is missing when SQLite lacks FTS5
+    private static boolean hasFullTextIndex() {
         try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sql);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE name = 'students_fts'")) {
+            return rs.next();
         } catch (SQLException e) {
+            Metrics.sqlErrors().record("StudentDAO.hasFullTextIndex", e);
             e.printStackTrace();
+            return false;
         }
     }
 
-    // Helper method that adds data
-    public void addStudent(Student student) {
-        String sql = "INSERT INTO students(student_number, first_name, last_name, program, level) VALUES (?, ?, ?, ?, ?)";
+    // Listeners hear about every successful mutation made through this DAO, after commit
+    @Override
+    public void addChangeListener(StudentChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(StudentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Helper method that adds data; returns the generated id, or -1 if the insert failed
+    @Override
+    public int addStudent(Student student) {
+        long start = ADD_METRICS.start();
         try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, student.getStudentNumber());
             pstmt.setString(2, student.getFirstName());
             pstmt.setString(3, student.getLastName());
             pstmt.setString(4, student.getProgram());
             pstmt.setInt(5, student.getLevel());
             pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    int id = keys.getInt(1);
+                    student.setId(id);
+                    ADD_METRICS.success(start, 1);
+                    for (StudentChangeListener listener : listeners) {
+                        listener.studentAdded(student);
+                    }
+                    return id;
+                }
+            }
+            ADD_METRICS.success(start, 0);
+        } catch (SQLException e) {
+            ADD_METRICS.failure(start, e);
+            if (isDuplicateNumber(e)) {
+                return DUPLICATE_NUMBER;
+            }
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private static void setSynchronous(Connection conn, String mode) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA synchronous = " + mode);
+        }
+    }
+
+    // idx_students_number_unique rejected the insert
+    private static boolean isDuplicateNumber(SQLException e) {
+        String message = e.getMessage();
+        return message != null && message.contains("UNIQUE constraint failed: students.student_number");
+    }
+
+    @Override
+    public BulkInsertResult addStudents(Collection<Student> students) {
+        return addStudents(students, DEFAULT_BATCH_SIZE);
+    }
+
+    // Bulk insert: one JDBC batch and one transaction per chunk of 'chunkSize'
+    // rows. Ids are set on each Student and returned in input order. A failed
+    // chunk is rolled back and stops the load; earlier chunks stay committed.
+    @Override
+    public BulkInsertResult addStudents(Collection<Student> students, int chunkSize) {
+        long start = System.nanoTime();
+        int[] ids = new int[students.size()];
+        int inserted = 0;
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL);
+             PreparedStatement lastId = conn.prepareStatement("SELECT last_insert_rowid()")) {
+            conn.setAutoCommit(false);
+            List<Student> chunk = new ArrayList<>(Math.min(chunkSize, students.size()));
+            for (Student student : students) {
+                chunk.add(student);
+                if (chunk.size() == chunkSize) {
+                    inserted = insertChunk(conn, pstmt, lastId, chunk, ids, inserted);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inserted = insertChunk(conn, pstmt, lastId, chunk, ids, inserted);
+            }
+            conn.setAutoCommit(true);
+            BULK_ADD_METRICS.success(start, inserted);
         } catch (SQLException e) {
+            BULK_ADD_METRICS.failure(start, e);
             e.printStackTrace();
         }
+        int[] result = inserted == ids.length ? ids : Arrays.copyOf(ids, inserted);
+        return new BulkInsertResult(result, students.size(), System.nanoTime() - start);
+    }
+
+    // Inserts and commits one chunk. The write lock is held for the whole
+    // transaction, so its AUTOINCREMENT ids are contiguous up to last_insert_rowid().
+    private int insertChunk(Connection conn, PreparedStatement pstmt, PreparedStatement lastId,
+                            List<Student> chunk, int[] ids, int offset) throws SQLException {
+        try {
+            for (Student student : chunk) {
+                pstmt.setString(1, student.getStudentNumber());
+                pstmt.setString(2, student.getFirstName());
+                pstmt.setString(3, student.getLastName());
+                pstmt.setString(4, student.getProgram());
+                pstmt.setInt(5, student.getLevel());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            int last;
+            try (ResultSet rs = lastId.executeQuery()) {
+                rs.next();
+                last = rs.getInt(1);
+            }
+            conn.commit();
+            int id = last - chunk.size() + 1;
+            for (Student student : chunk) {
+                student.setId(id);
+                ids[offset++] = id++;
+                for (StudentChangeListener listener : listeners) {
+                    listener.studentAdded(student);
+                }
+            }
+            return offset;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
     }
 
     // Helper method that retrieves data from database
+    @Override
     public List<Student> getAllStudents() {
         List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students";
+        forEachStudent(DEFAULT_FETCH_SIZE, students::add);
+        return students;
+    }
+
+    // Loads every student into a compact column store; no Student list is built.
+    // Returns null if the scan failed, so a partial table is never taken as complete.
+    @Override
+    public StudentColumnStore getAllStudentsColumnar() {
+        StudentColumnStore store = new StudentColumnStore();
+        return forEachStudent(DEFAULT_FETCH_SIZE, store::add) < 0 ? null : store;
+    }
+
+    // Hands every student to the consumer one row at a time, in id order,
+    // without building a list. Returns the number of rows visited, or -1 if
+    // the scan failed (the consumer may already have seen some rows).
+    @Override
+    public int forEachStudent(int fetchSize, Consumer<? super Student> consumer) {
+        int count = 0;
+        long start = SCAN_METRICS.start();
         try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL)) {
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(readStudent(rs));
+                    count++;
+                }
+            }
+            SCAN_METRICS.success(start, count);
+        } catch (SQLException e) {
+            SCAN_METRICS.failure(start, e);
+            e.printStackTrace();
+            return -1;
+        }
+        return count;
+    }
+
+    // Like forEachStudent, but hands over the raw column bytes instead of a
+    // Student, for bulk consumers such as the exporter. Exceptions thrown by
+    // the handler propagate after the connection is released.
+    @Override
+    public int forEachRow(int fetchSize, StudentRowHandler handler) {
+        int count = 0;
+        long start = ROWS_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL)) {
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.row(rs.getInt("id"),
+                            rs.getBytes("student_number"),
+                            rs.getBytes("first_name"),
+                            rs.getBytes("last_name"),
+                            ProgramDictionary.codeOf(readProgram(rs)),
+                            rs.getInt("level"));
+                    count++;
+                }
+            }
+            ROWS_METRICS.success(start, count);
+        } catch (SQLException e) {
+            ROWS_METRICS.failure(start, e);
+            e.printStackTrace();
+            return -1;
+        }
+        return count;
+    }
+
+    // Lazily streams every student in id order. The stream holds a pooled
+    // connection until it is closed, so always use try-with-resources.
+    @Override
+    public Stream<Student> streamStudents(int fetchSize) throws SQLException {
+        // Times opening the stream only; how fast it is consumed is up to the caller
+        long start = STREAM_METRICS.start();
+        try {
+            Stream<Student> stream = openStream(fetchSize);
+            STREAM_METRICS.success(start, 0);
+            return stream;
+        } catch (SQLException e) {
+            STREAM_METRICS.failure(start, e);
+            throw e;
+        }
+    }
+
+    private Stream<Student> openStream(int fetchSize) throws SQLException {
+        Connection conn = Database.getConnection();
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+            pstmt.setFetchSize(fetchSize);
+            ResultSet rs = pstmt.executeQuery();
+            PreparedStatement statement = pstmt;
+            Spliterator<Student> rows = new Spliterators.AbstractSpliterator<Student>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Student> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(readStudent(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Failed to read the next student row", e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try (conn; statement; rs) {
+                    // Closed in reverse order by try-with-resources
+                } catch (SQLException e) {
+                    Metrics.sqlErrors().record("StudentDAO.streamStudents", e);
+                    e.printStackTrace();
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            if (pstmt != null) {
+                pstmt.close();
+            }
+            conn.close();
+            throw e;
+        }
+    }
+
+    // Returns the number of students without loading them, or -1 if the query failed
+    @Override
+    public int countStudents() {
+        String sql = "SELECT COUNT(*) FROM students";
+        long start = COUNT_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            int count = rs.next() ? rs.getInt(1) : 0;
+            COUNT_METRICS.success(start, 1);
+            return count;
+        } catch (SQLException e) {
+            COUNT_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // Student count per program in name order; answered from the program index
+    @Override
+    public Map<String, Integer> countStudentsByProgram() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT program, COUNT(*) FROM students GROUP BY program ORDER BY program";
+        long start = COUNT_BY_PROGRAM_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                students.add(new Student(
-                        rs.getInt("id"),
-                        rs.getString("student_number"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("program"),
-                        rs.getInt("level")
-                ));
+                counts.put(ProgramDictionary.canonical(rs.getString(1)), rs.getInt(2));
             }
+            COUNT_BY_PROGRAM_METRICS.success(start, counts.size());
         } catch (SQLException e) {
+            COUNT_BY_PROGRAM_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    // Keyset page: up to 'limit' students with id greater than 'afterId', in id order
+    @Override
+    public List<Student> getStudentsAfter(int afterId, int limit) {
+        List<Student> students = new ArrayList<>();
+        String sql = "SELECT * FROM students WHERE id > ? ORDER BY id LIMIT ?";
+        long start = PAGE_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(readStudent(rs));
+                }
+            }
+            PAGE_METRICS.success(start, students.size());
+        } catch (SQLException e) {
+            PAGE_METRICS.failure(start, e);
             e.printStackTrace();
         }
         return students;
     }
 
-    // Helper method that updates existing data
-    public void updateStudent(Student student) {
-        String sql = "UPDATE students SET program = ?, level = ? WHERE id = ?";
+    // Id of the student at a 0-based position in id order, or -1 if out of range.
+    // Only walks the rowid b-tree; used to find a page start when jumping.
+    @Override
+    public int findIdAtOffset(int offset) {
+        String sql = "SELECT id FROM students ORDER BY id LIMIT 1 OFFSET ?";
+        long start = OFFSET_METRICS.start();
         try (Connection conn = Database.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                boolean found = rs.next();
+                OFFSET_METRICS.success(start, found ? 1 : 0);
+                if (found) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            OFFSET_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // Finds students whose number or name starts with the search words, optionally
+    // limited to one program (null or empty for all). Returns at most 'limit' rows in id order.
+    @Override
+    public List<Student> searchStudents(String text, String program, int limit) {
+        List<Student> students = new ArrayList<>();
+        String query = text == null ? "" : text.trim();
+        boolean byProgram = program != null && !program.isEmpty();
+        boolean useFts = !query.isEmpty() && useFullTextSearch();
+
+        StringBuilder sql = new StringBuilder("SELECT s.* FROM students s");
+        List<Object> params = new ArrayList<>();
+        String where = " WHERE ";
+        if (useFts) {
+            sql.append(" JOIN students_fts f ON f.rowid = s.id WHERE students_fts MATCH ?");
+            params.add(toFtsQuery(query));
+            where = " AND ";
+        } else if (!query.isEmpty()) {
+            String pattern = escapeLike(query) + "%";
+            sql.append(" WHERE (s.student_number LIKE ? ESCAPE '\\'")
+                    .append(" OR s.first_name LIKE ? ESCAPE '\\'")
+                    .append(" OR s.last_name LIKE ? ESCAPE '\\')");
+            params.add(pattern);
+            params.add(pattern);
+            params.add(pattern);
+            where = " AND ";
+        }
+        if (byProgram) {
+            sql.append(where).append("s.program = ?");
+            params.add(program);
+        }
+        sql.append(" ORDER BY s.id LIMIT ?");
+        params.add(limit);
+
+        long start = SEARCH_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(readStudent(rs));
+                }
+            }
+            SEARCH_METRICS.success(start, students.size());
+        } catch (SQLException e) {
+            SEARCH_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return students;
+    }
+
+    // Every word becomes a quoted prefix term, so user input can't inject FTS syntax
+    private static String toFtsQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        for (String word : text.split("\\s+")) {
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return query.toString();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Looks a single student up by primary key; null if there is no such row
+    @Override
+    public Student getStudentById(int id) {
+        long start = GET_BY_ID_METRICS.start();
+        try (Connection conn = Database.getConnection()) {
+            Student student = findStudent(conn, id);
+            GET_BY_ID_METRICS.success(start, student == null ? 0 : 1);
+            return student;
+        } catch (SQLException e) {
+            GET_BY_ID_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // First student (lowest id) with exactly this student number; null if none.
+    // The NOCASE comparison lets SQLite use idx_students_number; exact case is checked here.
+    @Override
+    public Student findByStudentNumber(String studentNumber) {
+        String sql = "SELECT * FROM students WHERE student_number = ? COLLATE NOCASE ORDER BY id";
+        long start = GET_BY_NUMBER_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getString("student_number").equals(studentNumber)) {
+                        GET_BY_NUMBER_METRICS.success(start, 1);
+                        return readStudent(rs);
+                    }
+                }
+            }
+            GET_BY_NUMBER_METRICS.success(start, 0);
+        } catch (SQLException e) {
+            GET_BY_NUMBER_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private Student findStudent(Connection conn, int id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM students WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? readStudent(rs) : null;
+            }
+        }
+    }
+
+    // Helper method that updates existing data; returns true if a row changed.
+    // With listeners attached the old row is read in the same transaction so
+    // they get an exact before/after pair.
+    @Override
+    public boolean updateStudent(Student student) {
+        boolean notify = !listeners.isEmpty();
+        long start = UPDATE_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            Student before = null;
+            if (notify) {
+                conn.setAutoCommit(false);
+                before = findStudent(conn, student.getId());
+            }
             pstmt.setString(1, student.getProgram());
             pstmt.setInt(2, student.getLevel());
             pstmt.setInt(3, student.getId());
-            pstmt.executeUpdate();
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (notify) {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+            UPDATE_METRICS.success(start, changed ? 1 : 0);
+            if (changed && before != null) {
+                // Only program and level are written, so the rest comes from the stored row
+                Student after = new Student(before.getId(), before.getStudentNumber(), before.getFirstName(),
+                        before.getLastName(), student.getProgram(), student.getLevel());
+                for (StudentChangeListener listener : listeners) {
+                    listener.studentUpdated(before, after);
+                }
+            }
+            return changed;
         } catch (SQLException e) {
+            UPDATE_METRICS.failure(start, e);
             e.printStackTrace();
         }
+        return false;
     }
 
-    // Helper method that deletes data
-    public void deleteStudent(int id) {
-        String sql = "DELETE FROM students WHERE id = ?";
+    // Helper method that deletes data; returns true if a row was removed
+    @Override
+    public boolean deleteStudent(int id) {
+        boolean notify = !listeners.isEmpty();
+        long start = DELETE_METRICS.start();
         try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+            Student before = null;
+            if (notify) {
+                conn.setAutoCommit(false);
+                before = findStudent(conn, id);
+            }
             pstmt.setInt(1, id);
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (notify) {
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+            DELETE_METRICS.success(start, deleted ? 1 : 0);
+            if (deleted && before != null) {
+                for (StudentChangeListener listener : listeners) {
+                    listener.studentDeleted(before);
+                }
+            }
+            return deleted;
+        } catch (SQLException e) {
+            DELETE_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // Latest change feed version; read it before a full load and poll changesSince from there
+    @Override
+    public long currentChangeVersion() {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COALESCE(MAX(version), 0) FROM student_changes");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            Metrics.sqlErrors().record("StudentDAO.currentChangeVersion", e);
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // Students changed after 'version', at most 'limit' of them, oldest change first.
+    // Several changes to one student come back once with its current row (or as a
+    // deleted id), so the cost follows the number of changed students, not the table.
+    // Returns null if the query failed.
+    @Override
+    public StudentChangeSet changesSince(long version, int limit) {
+        String sql = "SELECT c.version AS change_version, c.student_id, s.* " +
+                "FROM (SELECT student_id, MAX(version) AS version FROM student_changes " +
+                "WHERE version > ? GROUP BY student_id) c " +
+                "LEFT JOIN students s ON s.id = c.student_id " +
+                "ORDER BY c.version LIMIT ?";
+        long start = CHANGES_METRICS.start();
+        try (Connection conn = Database.getConnection()) {
+            // Older entries were pruned: the caller has missed changes and must reload
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT MIN(version) FROM student_changes");
+                 ResultSet rs = pstmt.executeQuery()) {
+                long oldest = rs.next() ? rs.getLong(1) : 0;
+                if (oldest > 0 && version < oldest - 1) {
+                    CHANGES_METRICS.success(start, 0);
+                    return StudentChangeSet.reset(version);
+                }
+            }
+            List<Student> changed = new ArrayList<>();
+            List<Integer> deleted = new ArrayList<>();
+            long latest = version;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, version);
+                pstmt.setInt(2, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        latest = rs.getLong("change_version");
+                        rs.getInt("id");
+                        if (rs.wasNull()) {
+                            deleted.add(rs.getInt("student_id"));
+                        } else {
+                            changed.add(readStudent(rs));
+                        }
+                    }
+                }
+            }
+            CHANGES_METRICS.success(start, changed.size() + deleted.size());
+            return new StudentChangeSet(version, latest, changed, deleted,
+                    changed.size() + deleted.size() == limit);
+        } catch (SQLException e) {
+            CHANGES_METRICS.failure(start, e);
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Trims the change log to its newest 'keep' entries; clients further behind reload in full
+    @Override
+    public void pruneChangeLog(int keep) {
+        String sql = "DELETE FROM student_changes WHERE version <= (SELECT MAX(version) FROM student_changes) - ?";
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, keep);
             pstmt.executeUpdate();
         } catch (SQLException e) {
+            Metrics.sqlErrors().record("StudentDAO.pruneChangeLog", e);
             e.printStackTrace();
         }
     }
+
+    // Applies queued mutations in order in one transaction, so a whole batch
+    // costs a single commit (see StudentWriteBehindQueue). Results line up
+    // with 'mutations': the new id, DUPLICATE_NUMBER or -1 for an add, 1 or 0
+    // for an update or delete. On failure the batch is rolled back, nobody is
+    // notified and the exception is rethrown so the caller can retry mutations
+    // one by one. The commit is synced to disk even in WAL mode, where pooled
+    // connections otherwise run with synchronous=NORMAL and a power loss can
+    // drop a commit the queue has already acknowledged.
+    int[] applyMutations(List<StudentMutation> mutations) throws SQLException {
+        boolean notify = !listeners.isEmpty();
+        int[] results = new int[mutations.size()];
+        Student[] before = new Student[mutations.size()];
+        long start = MUTATIONS_METRICS.start();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement insert = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement update = conn.prepareStatement(UPDATE_SQL);
+             PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+            if (Database.WAL) {
+                setSynchronous(conn, "FULL");
+            }
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < results.length; i++) {
+                    StudentMutation mutation = mutations.get(i);
+                    Student student = mutation.getStudent();
+                    switch (mutation.getKind()) {
+                        case ADD:
+                            insert.setString(1, student.getStudentNumber());
+                            insert.setString(2, student.getFirstName());
+                            insert.setString(3, student.getLastName());
+                            insert.setString(4, student.getProgram());
+                            insert.setInt(5, student.getLevel());
+                            try {
+                                insert.executeUpdate();
+                            } catch (SQLException e) {
+                                if (!isDuplicateNumber(e)) {
+                                    throw e;
+                                }
+                                // Only this statement is aborted; the rest of the batch goes on
+                                results[i] = DUPLICATE_NUMBER;
+                                break;
+                            }
+                            try (ResultSet keys = insert.getGeneratedKeys()) {
+                                results[i] = keys.next() ? keys.getInt(1) : -1;
+                            }
+                            break;
+                        case UPDATE:
+                            if (notify) {
+                                before[i] = findStudent(conn, mutation.getId());
+                            }
+                            update.setString(1, student.getProgram());
+                            update.setInt(2, student.getLevel());
+                            update.setInt(3, mutation.getId());
+                            results[i] = update.executeUpdate() > 0 ? 1 : 0;
+                            break;
+                        case DELETE:
+                            if (notify) {
+                                before[i] = findStudent(conn, mutation.getId());
+                            }
+                            delete.setInt(1, mutation.getId());
+                            results[i] = delete.executeUpdate() > 0 ? 1 : 0;
+                            break;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                if (Database.WAL) {
+                    setSynchronous(conn, "NORMAL"); // Back to the pool's setting
+                }
+            }
+            MUTATIONS_METRICS.success(start, mutations.size());
+        } catch (SQLException e) {
+            MUTATIONS_METRICS.failure(start, e);
+            throw e;
+        }
+        for (int i = 0; i < results.length; i++) {
+            StudentMutation mutation = mutations.get(i);
+            Student student = mutation.getStudent();
+            if (mutation.getKind() == StudentMutation.Kind.ADD && results[i] > 0) {
+                student.setId(results[i]);
+            }
+            if (!notify || results[i] <= 0) {
+                continue;
+            }
+            for (StudentChangeListener listener : listeners) {
+                switch (mutation.getKind()) {
+                    case ADD:
+                        listener.studentAdded(student);
+                        break;
+                    case UPDATE:
+                        Student after = new Student(before[i].getId(), before[i].getStudentNumber(),
+                                before[i].getFirstName(), before[i].getLastName(),
+                                student.getProgram(), student.getLevel());
+                        listener.studentUpdated(before[i], after);
+                        break;
+                    case DELETE:
+                        listener.studentDeleted(before[i]);
+                        break;
+                }
+            }
+        }
+        return results;
+    }
+
+    // Maps the current result set row to a Student
+    private Student readStudent(ResultSet rs) throws SQLException {
+        return new Student(
+                rs.getInt("id"),
+                rs.getString("student_number"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                readProgram(rs),
+                rs.getInt("level")
+        );
+    }
+
+    // The row's program as the shared ProgramDictionary instance
+    private static String readProgram(ResultSet rs) throws SQLException {
+        if (READ_PROGRAM_IDS) {
+            int programId = rs.getInt("program_id");
+            if (!rs.wasNull()) {
+                int[] codes = programCodeById;
+                if (programId >= codes.length || codes[programId] == ProgramDictionary.NONE) {
+                    codes = loadProgramIds(rs.getStatement().getConnection());
+                }
+                if (programId < codes.length && codes[programId] != ProgramDictionary.NONE) {
+                    return ProgramDictionary.nameOf(codes[programId]);
+                }
+            }
+        }
+        return ProgramDictionary.canonical(rs.getString("program"));
+    }
+
+    // Re-reads the programs table; it only ever grows, so a cached entry never goes stale
+    private static synchronized int[] loadProgramIds(Connection conn) throws SQLException {
+        int[] codes = new int[0];
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM programs ORDER BY id")) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                if (id >= codes.length) {
+                    int old = codes.length;
+                    codes = Arrays.copyOf(codes, Math.max(id + 1, old * 2));
+                    Arrays.fill(codes, old, codes.length, ProgramDictionary.NONE);
+                }
+                codes[id] = ProgramDictionary.codeOf(rs.getString(2));
+            }
+        }
+        programCodeById = codes;
+        return codes;
+    }
 }
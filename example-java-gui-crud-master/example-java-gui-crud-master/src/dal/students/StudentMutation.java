@@ -0,0 +1,42 @@
+package dal.students;
+
+import models.Student;
+
+// One queued add, update or delete, as applied by StudentDAO.applyMutations
+final class StudentMutation {
+    enum Kind { ADD, UPDATE, DELETE }
+
+    private final Kind kind;
+    private final Student student; // null for DELETE
+    private final int id;
+
+    private StudentMutation(Kind kind, Student student, int id) {
+        this.kind = kind;
+        this.student = student;
+        this.id = id;
+    }
+
+    static StudentMutation add(Student student) {
+        return new StudentMutation(Kind.ADD, student, 0);
+    }
+
+    static StudentMutation update(Student student) {
+        return new StudentMutation(Kind.UPDATE, student, student.getId());
+    }
+
+    static StudentMutation delete(int id) {
+        return new StudentMutation(Kind.DELETE, null, id);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    Student getStudent() {
+        return student;
+    }
+
+    int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,38 @@
+package dal.students;
+
+import models.StudentGenerator;
+
+import java.util.Random;
+
+// Picks the student storage backend at startup:
+//
+//   -Dstudents.backend=sqlite   StudentDAO over users.db, with its LRU cache (default)
+//   -Dstudents.backend=memory   InMemoryStudentRepository; nothing is saved
+//   -Dstudents.memory.seed=N    fills a new in-memory repository with N generated students
+public final class StudentRepositories {
+    public static final String SQLITE = "sqlite";
+    public static final String MEMORY = "memory";
+    public static final String BACKEND = System.getProperty("students.backend", SQLITE);
+    private static final int MEMORY_SEED = Integer.getInteger("students.memory.seed", 0);
+
+    private StudentRepositories() {
+    }
+
+    public static StudentRepository create() {
+        return create(BACKEND);
+    }
+
+    public static StudentRepository create(String backend) {
+        if (MEMORY.equalsIgnoreCase(backend)) {
+            InMemoryStudentRepository repository = new InMemoryStudentRepository();
+            if (MEMORY_SEED > 0) {
+                repository.addStudents(StudentGenerator.generate(new Random(42), 0, MEMORY_SEED));
+            }
+            return repository;
+        }
+        if (!SQLITE.equalsIgnoreCase(backend)) {
+            System.err.println("Unknown students.backend '" + backend + "'; using " + SQLITE);
+        }
+        return new CachingStudentDAO();
+    }
+}
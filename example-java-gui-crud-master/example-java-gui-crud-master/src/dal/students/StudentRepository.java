@@ -0,0 +1,85 @@
+package dal.students;
+
+import models.Student;
+import models.StudentColumnStore;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Student storage as the pages, exporter and background services use it.
+// StudentDAO keeps the data in SQLite; InMemoryStudentRepository holds it in
+// the heap. StudentRepositories.create() picks one with -Dstudents.backend.
+// Methods report failures the way StudentDAO always has: -1, false, null or
+// an empty result, with the cause logged.
+public interface StudentRepository {
+    // addStudent's result when another student already has the same number
+    int DUPLICATE_NUMBER = -2;
+
+    // Listeners hear about every successful mutation made through this repository, after commit
+    void addChangeListener(StudentChangeListener listener);
+
+    void removeChangeListener(StudentChangeListener listener);
+
+    // Returns the generated id, DUPLICATE_NUMBER if the student number is taken, or -1 if the insert failed
+    int addStudent(Student student);
+
+    BulkInsertResult addStudents(Collection<Student> students);
+
+    // Ids are set on each Student and returned in input order; 'chunkSize' rows are committed at a time
+    BulkInsertResult addStudents(Collection<Student> students, int chunkSize);
+
+    List<Student> getAllStudents();
+
+    // Null if the scan failed
+    StudentColumnStore getAllStudentsColumnar();
+
+    // Hands every student to the consumer in id order; returns the number of rows visited, or -1 if the scan failed
+    int forEachStudent(int fetchSize, Consumer<? super Student> consumer);
+
+    // Raw UTF-8 columns in id order (see StudentRowHandler); -1 if the scan failed
+    int forEachRow(int fetchSize, StudentRowHandler handler);
+
+    // Every student in id order; close the stream when done
+    Stream<Student> streamStudents(int fetchSize) throws SQLException;
+
+    // -1 if the count couldn't be read
+    int countStudents();
+
+    // Student count per program in name order
+    Map<String, Integer> countStudentsByProgram();
+
+    // Keyset page: up to 'limit' students with id greater than 'afterId', in id order
+    List<Student> getStudentsAfter(int afterId, int limit);
+
+    // Id of the student at a 0-based position in id order, or -1 if out of range
+    int findIdAtOffset(int offset);
+
+    // Students where every search word starts the student number or a name,
+    // optionally in one program (null or empty for all); at most 'limit' rows in id order.
+    // A fully loaded table searches StudentSearchIndex instead, which lists these
+    // first and then students matching only inside a word.
+    List<Student> searchStudents(String text, String program, int limit);
+
+    Student getStudentById(int id);
+
+    // First student (lowest id) with exactly this student number; null if none
+    Student findByStudentNumber(String studentNumber);
+
+    // Writes program and level; returns true if a row changed
+    boolean updateStudent(Student student);
+
+    boolean deleteStudent(int id);
+
+    // Latest change feed version, or -1 if it couldn't be read
+    long currentChangeVersion();
+
+    // Students changed after 'version' (see StudentChangeSet); null if the query failed
+    StudentChangeSet changesSince(long version, int limit);
+
+    // Trims the change log to its newest 'keep' entries
+    void pruneChangeLog(int keep);
+}
@@ -0,0 +1,9 @@
+package dal.students;
+
+// Receives raw rows from StudentDAO.forEachRow. Text columns arrive as the
+// UTF-8 bytes SQLite stores, so no Strings are decoded; the program is a
+// ProgramDictionary code. The arrays belong to the handler once passed.
+@FunctionalInterface
+public interface StudentRowHandler {
+    void row(int id, byte[] studentNumber, byte[] firstName, byte[] lastName, int programCode, int level);
+}
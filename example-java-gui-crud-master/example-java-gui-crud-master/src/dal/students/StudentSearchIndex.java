@@ -0,0 +1,443 @@
+package dal.students;
+
+import models.Student;
+import models.StudentColumnStore;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory search index over student number, first name and last name.
+// Words of three or more characters are looked up through trigram posting
+// lists; one- and two-character words through word-prefix postings. Posting
+// lists are sorted primitive int arrays of student ids. The index listens to
+// StudentDAO so it stays current without being rebuilt.
+public class StudentSearchIndex implements StudentChangeListener {
+    private static final int KIND_TRIGRAM = 0;
+    private static final int KIND_PREFIX = 1;
+
+    // Per-word scores; a student's rank is the sum over all query words
+    private static final int SCORE_EXACT = 4;
+    private static final int SCORE_PREFIX = 2;
+    private static final int SCORE_SUBSTRING = 1;
+    // Added when every word starts a word of some field, which puts all of those
+    // students ahead of any that match only inside a word
+    private static final int SCORE_ALL_PREFIX = 1 << 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private GramTable grams = new GramTable();
+
+    // Indexed students sorted by id, with lower-cased number/first/last name
+    private int[] docIds = new int[16];
+    private String[][] docFields = new String[16][];
+    private int docCount;
+    private volatile boolean ready;
+
+    // Replaces the index contents, e.g. after a full load
+    public void rebuild(Collection<Student> students) {
+        StudentSearchIndex fresh = new StudentSearchIndex();
+        for (Student student : students) {
+            fresh.insertLocked(student);
+        }
+        swapIn(fresh);
+    }
+
+    // Same, from a column store; rows are materialized one at a time
+    public void rebuild(StudentColumnStore store) {
+        StudentSearchIndex fresh = new StudentSearchIndex();
+        for (int row = 0; row < store.size(); row++) {
+            fresh.insertLocked(store.getStudent(row));
+        }
+        swapIn(fresh);
+    }
+
+    // Builds the index by streaming the table from the DAO; a failed scan keeps the old contents
+    public void build(StudentRepository dao) {
+        StudentSearchIndex fresh = new StudentSearchIndex();
+        if (dao.forEachStudent(StudentDAO.DEFAULT_FETCH_SIZE, fresh::insertLocked) >= 0) {
+            swapIn(fresh);
+        }
+    }
+
+    // Readers keep using the old contents until the new ones are complete
+    private void swapIn(StudentSearchIndex fresh) {
+        lock.writeLock().lock();
+        try {
+            grams = fresh.grams;
+            docIds = fresh.docIds;
+            docFields = fresh.docFields;
+            docCount = fresh.docCount;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Empties the index; searches should go to the database until it is rebuilt
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of students matching every word of the query, best matches first, then by id.
+    // Students where every word starts the student number or a word of a name -
+    // the set StudentRepository.searchStudents returns - always come first, so
+    // the top rows don't change when a table is searched in SQLite instead.
+    // Students matching some word only inside a word follow them. Within each
+    // group an exact field beats a word prefix, which beats a substring.
+    public int[] search(String query, int limit) {
+        String[] words = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        if (words.length == 0 || words[0].isEmpty()) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            int[] candidates = null;
+            for (String word : words) {
+                int[] matches = candidatesFor(word);
+                candidates = candidates == null ? matches : intersect(candidates, matches);
+                if (candidates.length == 0) {
+                    return candidates;
+                }
+            }
+
+            // Verify (trigrams can over-match) and rank; score and id packed into one long
+            long[] ranked = new long[candidates.length];
+            int count = 0;
+            for (int id : candidates) {
+                String[] fields = docFields[Arrays.binarySearch(docIds, 0, docCount, id)];
+                int score = 0;
+                boolean allPrefix = true;
+                for (String word : words) {
+                    int wordScore = score(fields, word);
+                    if (wordScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    allPrefix &= wordScore != SCORE_SUBSTRING;
+                    score += wordScore;
+                }
+                if (score > 0) {
+                    if (allPrefix) {
+                        score += SCORE_ALL_PREFIX;
+                    }
+                    ranked[count++] = ((long) (Integer.MAX_VALUE - score) << 32) | (id & 0xFFFFFFFFL);
+                }
+            }
+            Arrays.sort(ranked, 0, count);
+            int[] result = new int[Math.min(count, limit)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = (int) ranked[i];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentAdded(Student student) {
+        lock.writeLock().lock();
+        try {
+            insertLocked(student);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentUpdated(Student before, Student after) {
+        String[] fields = fieldsOf(after);
+        lock.writeLock().lock();
+        try {
+            int slot = Arrays.binarySearch(docIds, 0, docCount, after.getId());
+            if (slot >= 0 && Arrays.equals(docFields[slot], fields)) {
+                return; // Program/level changes don't touch the index
+            }
+            removeLocked(after.getId());
+            insertLocked(after);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentDeleted(Student before) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(before.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked() {
+        grams.clear();
+        docIds = new int[16];
+        docFields = new String[16][];
+        docCount = 0;
+        ready = false;
+    }
+
+    private void insertLocked(Student student) {
+        int id = student.getId();
+        int slot = Arrays.binarySearch(docIds, 0, docCount, id);
+        if (slot >= 0) {
+            removeLocked(id);
+            slot = Arrays.binarySearch(docIds, 0, docCount, id);
+        }
+        slot = -slot - 1;
+        if (docCount == docIds.length) {
+            int capacity = docCount + (docCount >> 1) + 1;
+            docIds = Arrays.copyOf(docIds, capacity);
+            docFields = Arrays.copyOf(docFields, capacity);
+        }
+        // Ids only grow, so this is almost always an append
+        System.arraycopy(docIds, slot, docIds, slot + 1, docCount - slot);
+        System.arraycopy(docFields, slot, docFields, slot + 1, docCount - slot);
+        String[] fields = fieldsOf(student);
+        docIds[slot] = id;
+        docFields[slot] = fields;
+        docCount++;
+
+        for (String field : fields) {
+            forEachGram(field, key -> grams.getOrCreate(key).add(id));
+        }
+    }
+
+    private void removeLocked(int id) {
+        int slot = Arrays.binarySearch(docIds, 0, docCount, id);
+        if (slot < 0) {
+            return;
+        }
+        for (String field : docFields[slot]) {
+            forEachGram(field, key -> {
+                Postings postings = grams.get(key);
+                if (postings != null) {
+                    postings.remove(id);
+                }
+            });
+        }
+        System.arraycopy(docIds, slot + 1, docIds, slot, docCount - slot - 1);
+        System.arraycopy(docFields, slot + 1, docFields, slot, docCount - slot - 1);
+        docCount--;
+        docFields[docCount] = null;
+    }
+
+    private int[] candidatesFor(String word) {
+        if (word.length() < 3) {
+            Postings postings = grams.get(prefixKey(word));
+            return postings == null ? new int[0] : Arrays.copyOf(postings.ids, postings.size);
+        }
+        // Start from the rarest trigram to keep intersections small
+        Postings[] lists = new Postings[word.length() - 2];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = grams.get(trigramKey(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, Arrays.copyOf(lists[i].ids, lists[i].size));
+        }
+        return result;
+    }
+
+    private static int score(String[] fields, String word) {
+        int best = 0;
+        for (String field : fields) {
+            if (field.equals(word)) {
+                return SCORE_EXACT;
+            }
+            for (int index = field.indexOf(word); index >= 0; index = field.indexOf(word, index + 1)) {
+                if (isWordStart(field, index)) {
+                    best = SCORE_PREFIX;
+                    break;
+                }
+                best = Math.max(best, SCORE_SUBSTRING);
+            }
+        }
+        return best;
+    }
+
+    // Words split like FTS5's unicode61 tokenizer: runs of letters and digits,
+    // so "brien" starts a word of "o'brien" and "2" one of "2024-0002"
+    private static boolean isWordStart(String field, int index) {
+        return index == 0 || !isWordChar(field.charAt(index - 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static String[] fieldsOf(Student student) {
+        return new String[]{
+                student.getStudentNumber().toLowerCase(Locale.ROOT),
+                student.getFirstName().toLowerCase(Locale.ROOT),
+                student.getLastName().toLowerCase(Locale.ROOT)
+        };
+    }
+
+    // Trigrams of the field plus the 1- and 2-character prefix of each word in it
+    private static void forEachGram(String field, GramConsumer consumer) {
+        for (int i = 0; i + 3 <= field.length(); i++) {
+            consumer.accept(trigramKey(field.charAt(i), field.charAt(i + 1), field.charAt(i + 2)));
+        }
+        for (int i = 0; i < field.length(); i++) {
+            if (isWordStart(field, i)) {
+                consumer.accept(prefixKey(field.substring(i, i + 1)));
+                if (i + 1 < field.length()) {
+                    consumer.accept(prefixKey(field.substring(i, i + 2)));
+                }
+            }
+        }
+    }
+
+    private static long trigramKey(char a, char b, char c) {
+        return ((long) KIND_TRIGRAM << 48) | ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static long prefixKey(String prefix) {
+        long key = ((long) KIND_PREFIX << 48) | ((long) prefix.length() << 32) | ((long) prefix.charAt(0) << 16);
+        return prefix.length() > 1 ? key | prefix.charAt(1) : key;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private interface GramConsumer {
+        void accept(long key);
+    }
+
+    // Sorted, growable int array of student ids
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int slot = Arrays.binarySearch(ids, 0, size, id);
+                if (slot >= 0) {
+                    return; // Same gram twice in one student
+                }
+                insertAt(-slot - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(int id) {
+            int slot = Arrays.binarySearch(ids, 0, size, id);
+            if (slot >= 0) {
+                System.arraycopy(ids, slot + 1, ids, slot, size - slot - 1);
+                size--;
+            }
+        }
+
+        private void insertAt(int slot, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, slot, ids, slot + 1, size - slot);
+            ids[slot] = id;
+            size++;
+        }
+    }
+
+    // Open-addressing map from packed gram keys to posting lists (no boxed keys)
+    private static final class GramTable {
+        private long[] keys = new long[1024];
+        private Postings[] values = new Postings[1024];
+        private int size;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        Postings getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            Postings created = new Postings();
+            keys[slot] = key;
+            values[slot] = created;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return created;
+        }
+
+        void clear() {
+            keys = new long[1024];
+            values = new Postings[1024];
+            size = 0;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
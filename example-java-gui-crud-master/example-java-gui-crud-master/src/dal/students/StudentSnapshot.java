@@ -0,0 +1,138 @@
+package dal.students;
+
+import db.Database;
+import models.StudentColumnStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Optional local copy of the students table (-Dstudents.snapshot=true) for
+// a fast warm start. The file holds a StudentColumnStore in binary column
+// form plus the change feed version it reflects; opening it is a memory
+// map and a few bulk copies. The caller shows it at once and then catches
+// up through StudentDAO.changesSince from that version.
+//
+// Layout (little-endian): magic, format version, change feed version,
+// database URL, then StudentColumnStore.writeColumns output.
+public class StudentSnapshot {
+    public static final boolean ENABLED = Boolean.getBoolean("students.snapshot");
+    private static final int MAGIC = 0x50414E53; // "SNAP"
+    private static final int FORMAT_VERSION = 1;
+
+    // A snapshot read from disk and the change feed version its rows reflect
+    public static final class Loaded {
+        private final StudentColumnStore store;
+        private final long version;
+
+        private Loaded(StudentColumnStore store, long version) {
+            this.store = store;
+            this.version = version;
+        }
+
+        public StudentColumnStore getStore() {
+            return store;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    private final Path file;
+    private final String databaseUrl;
+
+    public StudentSnapshot() {
+        this(defaultPath(), Database.getUrl());
+    }
+
+    public StudentSnapshot(Path file, String databaseUrl) {
+        this.file = file;
+        this.databaseUrl = databaseUrl;
+    }
+
+    // -Dstudents.snapshot.file, else next to the database file ("users.db.snapshot")
+    private static Path defaultPath() {
+        String configured = System.getProperty("students.snapshot.file");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        String url = Database.getUrl();
+        String dbFile = url.startsWith("jdbc:sqlite:") ? url.substring("jdbc:sqlite:".length()) : "users.db";
+        return Paths.get(dbFile + ".snapshot");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Returns the snapshot, or null if there is none or it doesn't match this database or format
+    public Loaded read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != FORMAT_VERSION) {
+                System.err.println("Ignoring student snapshot " + file + ": unknown format");
+                return null;
+            }
+            long version = mapped.getLong();
+            int urlLength = mapped.getInt();
+            if (urlLength < 0 || urlLength > mapped.remaining()) {
+                System.err.println("Ignoring unreadable student snapshot " + file + ": bad header");
+                return null;
+            }
+            byte[] url = new byte[urlLength];
+            mapped.get(url);
+            if (!databaseUrl.equals(new String(url, StandardCharsets.UTF_8))) {
+                System.err.println("Ignoring student snapshot " + file + ": taken from another database");
+                return null;
+            }
+            StudentColumnStore store = StudentColumnStore.readColumns(mapped);
+            if (store == null) {
+                System.err.println("Ignoring unreadable student snapshot " + file + ": truncated or corrupt");
+                return null;
+            }
+            return new Loaded(store, version);
+        } catch (IOException | RuntimeException e) {
+            // Truncated or corrupt files surface as buffer underflows; a full load replaces them
+            System.err.println("Ignoring unreadable student snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    // Saves 'store' as of change feed 'version'. Written to a temp file and
+    // moved into place, so readers never see half a snapshot. Call from the
+    // thread that owns the store.
+    public void write(StudentColumnStore store, long version) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            byte[] url = databaseUrl.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(20 + url.length).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(version).putInt(url.length).put(url).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            store.writeColumns(channel);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
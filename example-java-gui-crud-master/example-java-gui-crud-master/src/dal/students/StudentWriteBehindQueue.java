@@ -0,0 +1,268 @@
+package dal.students;
+
+import db.Database;
+import models.Student;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Optional write-behind mode for student mutations (-Dstudents.writeBehind=true).
+// Adds, updates and deletes are queued in order and written by one background
+// thread in batched transactions, so a burst of clerk actions shares a single
+// commit instead of paying one each. A batch is written once it reaches
+// 'batchSize' entries or its oldest entry has waited 'maxDelayMs'.
+//
+// Each call's future completes only after the transaction holding it has
+// committed with a full sync (synchronous=FULL, also when -Ddb.wal=true), so a
+// completed future means the change survives a crash or power loss. Several
+// queued updates to the same student collapse into one, and an update
+// followed by a delete of the same student is dropped in favour of the delete.
+public class StudentWriteBehindQueue implements AutoCloseable {
+    public static final boolean ENABLED = Boolean.getBoolean("students.writeBehind");
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("students.writeBehind.batchSize", 256);
+    public static final long DEFAULT_MAX_DELAY_MS = Long.getLong("students.writeBehind.maxDelayMs", 50);
+
+    // A queued mutation and everyone waiting on it; a null mutation is a flush marker
+    private static final class Pending {
+        private StudentMutation mutation;
+        private final List<CompletableFuture<Integer>> waiters = new ArrayList<>(1);
+        private final long enqueuedNanos = System.nanoTime();
+
+        private Pending(StudentMutation mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    private final StudentDAO dao;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread writer;
+    // Registered with Database, which drains it at exit before closing the pool
+    private final AutoCloseable drainOnShutdown = () -> close(5, TimeUnit.SECONDS);
+
+    // Guarded by 'queue'
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    // Queued (not yet taken by the writer) update per student id, for coalescing
+    private final Map<Integer, Pending> queuedUpdates = new HashMap<>();
+    private int flushMarkers;
+    private boolean closed;
+
+    public StudentWriteBehindQueue(StudentDAO dao) {
+        this(dao, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MS);
+    }
+
+    public StudentWriteBehindQueue(StudentDAO dao, int batchSize, long maxDelayMs) {
+        this.dao = dao;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.writer = new Thread(this::runWriter, "student-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        // Last resort for exits that skip the logout and window-close paths
+        Database.registerBeforeShutdown(drainOnShutdown);
+    }
+
+    // Completes with the generated id, StudentRepository.DUPLICATE_NUMBER, or -1 if the insert failed
+    public CompletableFuture<Integer> addStudent(Student student) {
+        return enqueue(StudentMutation.add(student));
+    }
+
+    // Completes with true once the change is committed, false if no row matched
+    public CompletableFuture<Boolean> updateStudent(Student student) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        synchronized (queue) {
+            Pending queued = queuedUpdates.get(student.getId());
+            if (queued != null && !closed) {
+                // Same statement either way; only the last program and level matter
+                queued.mutation = StudentMutation.update(copy(student));
+                queued.waiters.add(result);
+                return result.thenApply(changed -> changed > 0);
+            }
+            Pending pending = enqueueLocked(StudentMutation.update(copy(student)), result);
+            if (pending != null) {
+                queuedUpdates.put(student.getId(), pending);
+            }
+        }
+        return result.thenApply(changed -> changed > 0);
+    }
+
+    public CompletableFuture<Boolean> deleteStudent(int id) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        synchronized (queue) {
+            Pending pending = enqueueLocked(StudentMutation.delete(id), result);
+            Pending queued = queuedUpdates.remove(id);
+            if (queued != null && pending != null) {
+                // The row is going away; its pending update succeeds exactly when the delete does
+                queue.remove(queued);
+                pending.waiters.addAll(queued.waiters);
+            }
+        }
+        return result.thenApply(deleted -> deleted > 0);
+    }
+
+    // Completes once everything queued before this call has been committed,
+    // including a batch the writer is in the middle of
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        synchronized (queue) {
+            if (enqueueLocked(null, result) == null) {
+                return CompletableFuture.completedFuture(null); // Closing already drains the queue
+            }
+        }
+        return result.thenApply(ignored -> null);
+    }
+
+    public int getQueuedCount() {
+        synchronized (queue) {
+            return queue.size() - flushMarkers;
+        }
+    }
+
+    // Flushes, stops the writer and waits for it. Later calls fail their futures.
+    public void close(long timeout, TimeUnit unit) {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.notifyAll();
+        }
+        try {
+            writer.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            System.err.println("Student write-behind queue did not drain within " + timeout + " " + unit);
+        }
+        Database.unregisterBeforeShutdown(drainOnShutdown);
+    }
+
+    @Override
+    public void close() {
+        close(10, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<Integer> enqueue(StudentMutation mutation) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        synchronized (queue) {
+            enqueueLocked(mutation, result);
+        }
+        return result;
+    }
+
+    // Caller holds 'queue'. Returns the new entry, or null (future failed) once closed.
+    private Pending enqueueLocked(StudentMutation mutation, CompletableFuture<Integer> result) {
+        if (closed) {
+            result.completeExceptionally(new IllegalStateException("Student write-behind queue is closed"));
+            return null;
+        }
+        Pending pending = new Pending(mutation);
+        pending.waiters.add(result);
+        queue.add(pending);
+        if (mutation == null) {
+            flushMarkers++;
+        }
+        queue.notifyAll();
+        return pending;
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            synchronized (queue) {
+                try {
+                    while (queue.isEmpty() && !closed) {
+                        queue.wait();
+                    }
+                    if (queue.isEmpty()) {
+                        return; // Closed and drained
+                    }
+                    // Let the batch fill up unless it is full, overdue, flushed or closing
+                    long deadline = queue.peek().enqueuedNanos + maxDelayNanos;
+                    long wait;
+                    while (queue.size() < batchSize && flushMarkers == 0 && !closed
+                            && (wait = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(queue, wait);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closed = true; // Drain what's queued, then stop
+                }
+                while (!queue.isEmpty() && batch.size() < batchSize) {
+                    Pending pending = queue.poll();
+                    if (pending.mutation == null) {
+                        flushMarkers--;
+                    } else if (pending.mutation.getKind() == StudentMutation.Kind.UPDATE) {
+                        queuedUpdates.remove(pending.mutation.getId(), pending);
+                    }
+                    batch.add(pending);
+                }
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // Commits one batch; if the transaction fails, retries each mutation on
+    // its own so one bad row doesn't fail the others
+    private void write(List<Pending> batch) {
+        List<Pending> writes = new ArrayList<>(batch.size());
+        List<StudentMutation> mutations = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (pending.mutation != null) {
+                writes.add(pending);
+                mutations.add(pending.mutation);
+            }
+        }
+        if (!mutations.isEmpty()) {
+            try {
+                complete(writes, dao.applyMutations(mutations));
+            } catch (SQLException batchError) {
+                for (Pending pending : writes) {
+                    try {
+                        complete(List.of(pending), dao.applyMutations(List.of(pending.mutation)));
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                        for (CompletableFuture<Integer> waiter : pending.waiters) {
+                            waiter.completeExceptionally(e);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                for (Pending pending : writes) {
+                    for (CompletableFuture<Integer> waiter : pending.waiters) {
+                        waiter.completeExceptionally(e);
+                    }
+                }
+            }
+        }
+        // Flush markers complete after everything ahead of them in the batch
+        for (Pending pending : batch) {
+            if (pending.mutation == null) {
+                pending.waiters.get(0).complete(0);
+            }
+        }
+    }
+
+    private static void complete(List<Pending> writes, int[] results) {
+        for (int i = 0; i < results.length; i++) {
+            for (CompletableFuture<Integer> waiter : writes.get(i).waiters) {
+                waiter.complete(results[i]);
+            }
+        }
+    }
+
+    // Queued updates are held until written, so they mustn't share the caller's object
+    private static Student copy(Student student) {
+        return new Student(student.getId(), student.getStudentNumber(), student.getFirstName(),
+                student.getLastName(), student.getProgram(), student.getLevel());
+    }
+}
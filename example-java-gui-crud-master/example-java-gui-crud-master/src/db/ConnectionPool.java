@@ -0,0 +1,306 @@
+package db;
+
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded pool of physical connections. Callers get a wrapper whose close()
+// hands the connection back instead of closing the underlying SQLite handle.
+public class ConnectionPool implements ConnectionPoolMXBean, AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final List<String> setupStatements;
+    private final int statementCacheSize;
+    private final StatementCache.Stats statementStats = new StatementCache.Stats();
+
+    private final BlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final LatencyHistogram acquireWait = new LatencyHistogram();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Properties connectionProperties, int maxSize, long acquireTimeoutMillis,
+                          List<String> setupStatements, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.setupStatements = List.copyOf(setupStatements);
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    // Borrows a connection, waiting up to the acquire timeout when all are in use
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeValidIdle();
+            if (entry == null) {
+                entry = open();
+            }
+            active.incrementAndGet();
+            acquireWait.record(System.nanoTime() - start);
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Pops idle connections until one passes validation; broken ones are discarded
+    private PooledEntry takeValidIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            try {
+                if (entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return entry;
+                }
+            } catch (SQLException ignored) {
+                // Treated the same as an invalid connection
+            }
+            discard(entry);
+        }
+        return null;
+    }
+
+    // Opens a physical connection and applies the one-time setup statements
+    private PooledEntry open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        try (Statement stmt = physical.createStatement()) {
+            for (String sql : setupStatements) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        opened.incrementAndGet();
+        return new PooledEntry(physical, new StatementCache(physical, statementCacheSize, statementStats));
+    }
+
+    private void release(PooledEntry entry) {
+        active.decrementAndGet();
+        try {
+            if (closed || entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!entry.physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        opened.decrementAndGet();
+        try {
+            entry.statements.closeAll();
+            entry.physical.close();
+        } catch (SQLException e) {
+            Metrics.sqlErrors().record("ConnectionPool.discard", e);
+            e.printStackTrace();
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(entry));
+    }
+
+    // Pool statistics
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public int getOpenCount() {
+        return opened.get();
+    }
+
+    @Override
+    public long getAcquireCount() {
+        return acquireWait.getCount();
+    }
+
+    @Override
+    public long getAcquireTimeouts() {
+        return acquireTimeouts.sum();
+    }
+
+    @Override
+    public double getAverageAcquireWaitMillis() {
+        return acquireWait.getMeanNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public double getP99AcquireWaitMillis() {
+        return acquireWait.getValueAtQuantile(0.99) / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxAcquireWaitMillis() {
+        return acquireWait.getMaxNanos() / 1_000_000.0;
+    }
+
+    public LatencyHistogram getAcquireWait() {
+        return acquireWait;
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementStats.getHits();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return statementStats.getMisses();
+    }
+
+    @Override
+    public long getStatementCacheEvictions() {
+        return statementStats.getEvictions();
+    }
+
+    @Override
+    public double getStatementCacheHitRatio() {
+        return statementStats.getHitRatio();
+    }
+
+    public StatementCache.Stats getStatementCacheStats() {
+        return statementStats;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[active=%d, idle=%d, open=%d/%d, acquires=%d, timeouts=%d, avgWait=%.3f ms, p99Wait=%.3f ms, maxWait=%.3f ms, %s]",
+                getActiveCount(), getIdleCount(), getOpenCount(), maxSize, getAcquireCount(), getAcquireTimeouts(),
+                getAverageAcquireWaitMillis(), getP99AcquireWaitMillis(), getMaxAcquireWaitMillis(), statementStats);
+    }
+
+    // Closes idle connections; borrowed ones are closed as they come back
+    @Override
+    public void close() {
+        closed = true;
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    // A physical connection plus any state that should live as long as it does
+    private static final class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statements;
+
+        private PooledEntry(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    // Forwards everything to the physical connection except close() and
+    // prepareStatement(sql[, autoGeneratedKeys]), which go through the cache
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned;
+
+        private PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + entry.physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement")
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return entry.statements.prepare((String) args[0], keys);
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package db;
+
+// JMX view of the connection pool, registered by Database
+public interface ConnectionPoolMXBean {
+    int getMaxSize();
+
+    int getActiveCount();
+
+    int getIdleCount();
+
+    int getOpenCount();
+
+    long getAcquireCount();
+
+    long getAcquireTimeouts();
+
+    double getAverageAcquireWaitMillis();
+
+    double getP99AcquireWaitMillis();
+
+    double getMaxAcquireWaitMillis();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    long getStatementCacheEvictions();
+
+    double getStatementCacheHitRatio();
+}
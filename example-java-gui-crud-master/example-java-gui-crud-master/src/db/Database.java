@@ -1,13 +1,141 @@
 package db;
 
+import metrics.Metrics;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 
 public class Database {
-    private static final String URL = "jdbc:sqlite:users.db";
+    // -Ddb.url points the app (or a benchmark) at another database file
+    private static final String URL = System.getProperty("db.url", "jdbc:sqlite:users.db");
+    private static final int POOL_SIZE = Integer.getInteger("db.pool.size", 4);
+    private static final long ACQUIRE_TIMEOUT_MS = Long.getLong("db.pool.acquireTimeoutMs", 5000);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("db.statementCache.size", 32);
+
+    // Explicit transactions take the write lock up front (BEGIN IMMEDIATE), so a
+    // read-then-write transaction can't fail to upgrade under a concurrent writer
+    private static final Properties CONNECTION_PROPERTIES = new Properties();
+
+    static {
+        CONNECTION_PROPERTIES.setProperty("transaction_mode", "IMMEDIATE");
+    }
+
+    // -Ddb.wal=true switches the file to write-ahead logging, so readers don't
+    // block the writer. Off by default: WAL is a permanent change to users.db,
+    // adds users.db-wal/-shm files beside it, and doesn't work when the file
+    // is shared from a network drive, which is how several desktops share it.
+    public static final boolean WAL = Boolean.getBoolean("db.wal");
+
+    // Applied once to every physical connection the pool opens
+    private static final List<String> CONNECTION_SETUP = WAL
+            ? List.of("PRAGMA busy_timeout = 5000", "PRAGMA journal_mode = WAL", "PRAGMA synchronous = NORMAL")
+            : List.of("PRAGMA busy_timeout = 5000");
+
+    private static final String POOL_MBEAN = "type=ConnectionPool";
+
+    private static volatile ConnectionPool pool;
+    private static boolean shutdownHookInstalled;
+    // Guarded by Database.class. Work that still needs the pool at exit (the
+    // student write-behind queue), closed in order by shutdown() before the pool.
+    private static final List<AutoCloseable> beforeShutdown = new ArrayList<>();
+    private static boolean shuttingDown;
+
+    public static String getUrl() {
+        return URL;
+    }
 
+    // Returns a pooled connection; closing it hands it back to the pool
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL);
+        try {
+            return getPool().borrow();
+        } catch (IllegalStateException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    // Throws IllegalStateException if the schema can't be brought up to date;
+    // the next call tries again
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (Database.class) {
+                current = pool;
+                if (current == null) {
+                    if (shuttingDown) {
+                        // A late flush mustn't reopen the file and re-run the migrations
+                        throw new IllegalStateException("Database " + URL + " is shut down");
+                    }
+                    current = new ConnectionPool(URL, CONNECTION_PROPERTIES, POOL_SIZE, ACQUIRE_TIMEOUT_MS,
+                            CONNECTION_SETUP, STATEMENT_CACHE_SIZE);
+                    try {
+                        migrate(current);
+                    } catch (SQLException e) {
+                        current.close();
+                        throw new IllegalStateException("Could not upgrade the database schema of " + URL
+                                + ": " + e.getMessage(), e);
+                    }
+                    Metrics.register(POOL_MBEAN, current);
+                    pool = current;
+                    if (!shutdownHookInstalled) {
+                        Runtime.getRuntime().addShutdownHook(new Thread(Database::shutdown, "db-pool-shutdown"));
+                        shutdownHookInstalled = true;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    // Brings the schema up to date before any DAO sees the pool. A failed step
+    // must stop the app from running on a half-upgraded schema.
+    private static void migrate(ConnectionPool newPool) throws SQLException {
+        try (Connection conn = newPool.borrow()) {
+            SchemaMigrator.migrate(conn);
+        } catch (SQLException e) {
+            Metrics.sqlErrors().record("SchemaMigrator.migrate", e);
+            throw e;
+        }
+    }
+
+    // Has shutdown() close 'resource' before the pool, so its pending writes
+    // still have connections. Runs from the one exit hook, never concurrently.
+    public static synchronized void registerBeforeShutdown(AutoCloseable resource) {
+        beforeShutdown.add(resource);
+    }
+
+    public static synchronized void unregisterBeforeShutdown(AutoCloseable resource) {
+        beforeShutdown.remove(resource);
+    }
+
+    // Drains the registered resources, then closes every idle connection in
+    // the pool. Later calls (the exit hook after an explicit shutdown) do nothing.
+    public static void shutdown() {
+        List<AutoCloseable> resources;
+        synchronized (Database.class) {
+            if (shuttingDown) {
+                return;
+            }
+            shuttingDown = true;
+            resources = new ArrayList<>(beforeShutdown);
+            beforeShutdown.clear();
+        }
+        // Outside the lock: a draining writer still borrows from the pool
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        synchronized (Database.class) {
+            if (pool != null) {
+                Metrics.unregister(POOL_MBEAN);
+                pool.close();
+                pool = null;
+            }
+        }
     }
 }
@@ -0,0 +1,74 @@
+package db;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared executor for database work that must stay off the Swing EDT.
+// Set -Ddb.executor.virtual=true to use virtual threads on JDK 21+.
+public class DatabaseExecutor {
+    private static final boolean USE_VIRTUAL_THREADS = Boolean.getBoolean("db.executor.virtual");
+    private static final int PLATFORM_THREADS = Integer.getInteger("db.executor.threads",
+            Integer.getInteger("db.pool.size", 4));
+
+    private static volatile ExecutorService executor;
+
+    public static ExecutorService get() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (DatabaseExecutor.class) {
+                current = executor;
+                if (current == null) {
+                    current = create();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ExecutorService create() {
+        if (USE_VIRTUAL_THREADS) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual != null) {
+                return virtual;
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "db-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(PLATFORM_THREADS, factory);
+    }
+
+    // Looked up reflectively so the project still compiles and runs on older JDKs.
+    // Returns null when virtual threads are not available.
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("Virtual threads are not available on this JDK; using platform threads.");
+            return null;
+        }
+    }
+
+    // Lets queued work finish, e.g. before the application exits
+    public static synchronized void shutdown(long timeout, TimeUnit unit) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+}
@@ -0,0 +1,226 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Versioned schema upgrades, run once when the connection pool starts. The
+// applied version is kept in SQLite's PRAGMA user_version, so an existing
+// users.db (version 0) is upgraded in place and a current one costs a
+// single header read.
+public class SchemaMigrator {
+
+    // Java work a step needs besides plain SQL, e.g. to report what it changes
+    @FunctionalInterface
+    private interface Action {
+        void run(Statement stmt) throws SQLException;
+    }
+
+    // One schema step; optional steps may fail (e.g. no FTS5 in this SQLite build)
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final boolean optional;
+        private final Action before;
+        private final List<String> statements;
+
+        private Migration(int version, String description, boolean optional, String... statements) {
+            this(version, description, optional, null, statements);
+        }
+
+        // 'before' runs first, in the same transaction as the statements
+        private Migration(int version, String description, boolean optional, Action before, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.optional = optional;
+            this.before = before;
+            this.statements = List.of(statements);
+        }
+    }
+
+    // Append new steps at the end with the next version number; never edit shipped ones
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Base tables", false,
+                    "CREATE TABLE IF NOT EXISTS admins (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "username TEXT NOT NULL," +
+                            "password TEXT NOT NULL)",
+                    "CREATE TABLE IF NOT EXISTS students (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "student_number TEXT NOT NULL," +
+                            "first_name TEXT NOT NULL," +
+                            "last_name TEXT NOT NULL," +
+                            "program TEXT NOT NULL," +
+                            "level INTEGER NOT NULL)"),
+            new Migration(2, "Indexes for login, search and program filtering", false,
+                    // Older builds allowed duplicate usernames; the unique index needs them renamed
+                    SchemaMigrator::renameDuplicateAdmins,
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_admins_username ON admins(username)",
+                    // NOCASE indexes let case-insensitive LIKE 'prefix%' use an index range
+                    "CREATE INDEX IF NOT EXISTS idx_students_number ON students(student_number COLLATE NOCASE)",
+                    "CREATE INDEX IF NOT EXISTS idx_students_first_name ON students(first_name COLLATE NOCASE)",
+                    "CREATE INDEX IF NOT EXISTS idx_students_last_name ON students(last_name COLLATE NOCASE)",
+                    // (program, level) also serves program equality and GROUP BY program
+                    "DROP INDEX IF EXISTS idx_students_program",
+                    "CREATE INDEX IF NOT EXISTS idx_students_program_level ON students(program, level)"),
+            new Migration(3, "Full-text search over student number and names", true,
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS students_fts USING fts5(" +
+                            "student_number, first_name, last_name, " +
+                            "content='students', content_rowid='id', prefix='2 3')",
+                    "CREATE TRIGGER IF NOT EXISTS students_fts_ai AFTER INSERT ON students BEGIN " +
+                            "INSERT INTO students_fts(rowid, student_number, first_name, last_name) " +
+                            "VALUES (new.id, new.student_number, new.first_name, new.last_name); END",
+                    "CREATE TRIGGER IF NOT EXISTS students_fts_ad AFTER DELETE ON students BEGIN " +
+                            "INSERT INTO students_fts(students_fts, rowid, student_number, first_name, last_name) " +
+                            "VALUES ('delete', old.id, old.student_number, old.first_name, old.last_name); END",
+                    "CREATE TRIGGER IF NOT EXISTS students_fts_au AFTER UPDATE OF student_number, first_name, last_name ON students BEGIN " +
+                            "INSERT INTO students_fts(students_fts, rowid, student_number, first_name, last_name) " +
+                            "VALUES ('delete', old.id, old.student_number, old.first_name, old.last_name); " +
+                            "INSERT INTO students_fts(rowid, student_number, first_name, last_name) " +
+                            "VALUES (new.id, new.student_number, new.first_name, new.last_name); END",
+                    "INSERT INTO students_fts(students_fts) VALUES ('rebuild')"),
+            new Migration(4, "Program lookup table", false,
+                    "CREATE TABLE IF NOT EXISTS programs (" +
+                            "id INTEGER PRIMARY KEY," +
+                            "name TEXT NOT NULL UNIQUE)",
+                    "INSERT OR IGNORE INTO programs(name) SELECT DISTINCT program FROM students ORDER BY program",
+                    "ALTER TABLE students ADD COLUMN program_id INTEGER REFERENCES programs(id)",
+                    "UPDATE students SET program_id = (SELECT id FROM programs WHERE name = students.program)",
+                    // Triggers keep program_id right for every writer, including older builds
+                    "CREATE TRIGGER IF NOT EXISTS students_program_ai AFTER INSERT ON students BEGIN " +
+                            "INSERT OR IGNORE INTO programs(name) VALUES (new.program); " +
+                            "UPDATE students SET program_id = (SELECT id FROM programs WHERE name = new.program) " +
+                            "WHERE id = new.id; END",
+                    "CREATE TRIGGER IF NOT EXISTS students_program_au AFTER UPDATE OF program ON students BEGIN " +
+                            "INSERT OR IGNORE INTO programs(name) VALUES (new.program); " +
+                            "UPDATE students SET program_id = (SELECT id FROM programs WHERE name = new.program) " +
+                            "WHERE id = new.id; END"),
+            new Migration(5, "Change log for incremental refresh", false,
+                    // version is the change feed position; AUTOINCREMENT keeps it from ever going back
+                    "CREATE TABLE IF NOT EXISTS student_changes (" +
+                            "version INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "student_id INTEGER NOT NULL," +
+                            "op TEXT NOT NULL)",
+                    "CREATE TRIGGER IF NOT EXISTS students_changes_ai AFTER INSERT ON students BEGIN " +
+                            "INSERT INTO student_changes(student_id, op) VALUES (new.id, 'I'); END",
+                    // Listed columns only, so the program_id trigger's own UPDATE isn't logged twice
+                    "CREATE TRIGGER IF NOT EXISTS students_changes_au " +
+                            "AFTER UPDATE OF student_number, first_name, last_name, program, level ON students BEGIN " +
+                            "INSERT INTO student_changes(student_id, op) VALUES (new.id, 'U'); END",
+                    "CREATE TRIGGER IF NOT EXISTS students_changes_ad AFTER DELETE ON students BEGIN " +
+                            "INSERT INTO student_changes(student_id, op) VALUES (old.id, 'D'); END"),
+            new Migration(6, "Unique student numbers", false,
+                    // Files written before the add form's duplicate check may hold repeats
+                    SchemaMigrator::renameDuplicateStudentNumbers,
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_students_number_unique ON students(student_number)")
+    );
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    // Applies every pending step, each in its own transaction. The version is
+    // re-read inside the transaction so two clients starting together don't
+    // both apply the same step.
+    public static void migrate(Connection conn) throws SQLException {
+        if (readVersion(conn) >= latestVersion()) {
+            return;
+        }
+        for (Migration migration : MIGRATIONS) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                if (readVersion(conn) >= migration.version) {
+                    conn.commit();
+                    continue;
+                }
+                try {
+                    if (migration.before != null) {
+                        migration.before.run(stmt);
+                    }
+                    for (String sql : migration.statements) {
+                        stmt.execute(sql);
+                    }
+                } catch (SQLException e) {
+                    if (!migration.optional) {
+                        throw e;
+                    }
+                    // Roll back the partial step, then just record it as done
+                    conn.rollback();
+                    System.err.println("Skipped optional schema step " + migration.version
+                            + " (" + migration.description + "): " + e.getMessage());
+                }
+                stmt.execute("PRAGMA user_version = " + migration.version);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Schema migration " + migration.version + " ("
+                        + migration.description + ") failed", e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Every account but the oldest of each username is renamed, so no account
+    // is lost and its owner can still sign in under the new name
+    private static void renameDuplicateAdmins(Statement stmt) throws SQLException {
+        renameDuplicates(stmt, 2, "admins", "username", "admin account");
+    }
+
+    // Same for student numbers: the oldest record keeps the number, later ones
+    // get a marked copy an admin can spot in the table and correct
+    private static void renameDuplicateStudentNumbers(Statement stmt) throws SQLException {
+        renameDuplicates(stmt, 6, "students", "student_number", "student number");
+    }
+
+    // Gives every row but the oldest (lowest id) of each 'column' value a free
+    // "<value>-<id>" name, adding "-2", "-3"... while that is taken too, so the
+    // unique index created next can't fail. Each rename is logged.
+    private static void renameDuplicates(Statement stmt, int version, String table, String column, String what)
+            throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery("SELECT id, " + column + " FROM " + table + " WHERE id NOT IN "
+                + "(SELECT MIN(id) FROM " + table + " GROUP BY " + column + ") ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+                values.add(rs.getString(2));
+            }
+        }
+        Connection conn = stmt.getConnection();
+        try (PreparedStatement taken = conn.prepareStatement("SELECT 1 FROM " + table + " WHERE " + column + " = ?");
+             PreparedStatement rename = conn.prepareStatement(
+                     "UPDATE " + table + " SET " + column + " = ? WHERE id = ?")) {
+            for (int i = 0; i < ids.size(); i++) {
+                String base = values.get(i) + "-" + ids.get(i);
+                String name = base;
+                for (int suffix = 2; isTaken(taken, name); suffix++) {
+                    name = base + "-" + suffix;
+                }
+                rename.setString(1, name);
+                rename.setInt(2, ids.get(i));
+                rename.executeUpdate();
+                System.err.println("Schema step " + version + ": renamed duplicate " + what + " '" + values.get(i)
+                        + "' (id " + ids.get(i) + ") to '" + name + "'");
+            }
+        }
+    }
+
+    private static boolean isTaken(PreparedStatement taken, String name) throws SQLException {
+        taken.setString(1, name);
+        try (ResultSet rs = taken.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    public static int readVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package db;
+
+import metrics.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// LRU cache of prepared statements for one physical connection, keyed by SQL
+// text. A connection is only used by one thread at a time, so no locking.
+public class StatementCache {
+    private final Connection physical;
+    private final int capacity;
+    private final Stats stats;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    public StatementCache(Connection physical, int capacity, Stats stats) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.stats = stats;
+    }
+
+    // Returns a compiled statement for the SQL; closing it keeps it cached
+    public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? sql + "\u0000keys" : sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse && cached.statement.isClosed()) {
+            // The driver finalized it behind our back (e.g. after an error)
+            statements.remove(key);
+            cached = null;
+        }
+        if (cached != null && !cached.inUse) {
+            stats.hits.increment();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        stats.misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // Same SQL is already open further up the call stack; don't share it
+            return statement;
+        }
+        CachedStatement created = new CachedStatement(statement);
+        created.inUse = true;
+        statements.put(key, created);
+        evictOverflow();
+        return created.proxy;
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            it.remove();
+            stats.evictions.increment();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    // Closes every cached statement; called when the physical connection goes away
+    public void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closeQuietly();
+        }
+        statements.clear();
+    }
+
+    // Hit/miss counters shared by every cache in a pool
+    public static final class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        public double getHitRatio() {
+            long h = hits.sum();
+            long total = h + misses.sum();
+            return total == 0 ? 0 : (double) h / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("StatementCache[hits=%d, misses=%d, evictions=%d, hitRatio=%.3f]",
+                    getHits(), getMisses(), getEvictions(), getHitRatio());
+        }
+    }
+
+    // Wraps a statement so close() resets it instead of finalizing it in SQLite
+    private static final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        inUse = false;
+                        if (evicted) {
+                            statement.close();
+                        } else {
+                            statement.clearParameters();
+                            statement.clearBatch();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                Metrics.sqlErrors().record("StatementCache.close", e);
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package export;
+
+// Output formats supported by StudentExporter
+public enum ExportFormat {
+    CSV("csv"),
+    JSON_LINES("jsonl");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
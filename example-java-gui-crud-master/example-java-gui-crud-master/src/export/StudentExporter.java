@@ -0,0 +1,304 @@
+package export;
+
+import dal.students.StudentDAO;
+import dal.students.StudentRepository;
+import metrics.Metrics;
+import metrics.OperationMetrics;
+import models.ProgramDictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+// Streams the whole students table to a CSV or JSON Lines file. Rows go
+// straight from the ResultSet (as raw UTF-8 column bytes) into one reused
+// direct ByteBuffer that is written through a FileChannel whenever it
+// fills, so memory stays constant however many rows there are. Output goes
+// to "<target>.part" and is moved into place once complete.
+public class StudentExporter {
+    public static final int BUFFER_SIZE = Math.max(1024, Integer.getInteger("export.bufferSize", 256 * 1024));
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final OperationMetrics EXPORT_METRICS = Metrics.operation("StudentExporter", "export");
+
+    private static final byte[] CSV_HEADER = ascii("id,student_number,first_name,last_name,program,level\r\n");
+    private static final byte[] CSV_LINE_END = ascii("\r\n");
+    private static final byte[] JSON_ID = ascii("{\"id\":");
+    private static final byte[] JSON_NUMBER = ascii(",\"student_number\":");
+    private static final byte[] JSON_FIRST_NAME = ascii(",\"first_name\":");
+    private static final byte[] JSON_LAST_NAME = ascii(",\"last_name\":");
+    private static final byte[] JSON_PROGRAM = ascii(",\"program\":");
+    private static final byte[] JSON_LEVEL = ascii(",\"level\":");
+    private static final byte[] JSON_LINE_END = ascii("}\n");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    // Called on the exporting thread every few thousand rows and once at the end.
+    // 'totalRows' is the count taken before the export started, or -1 if unknown.
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    private final StudentRepository dao;
+
+    public StudentExporter(StudentRepository dao) {
+        this.dao = dao;
+    }
+
+    // Writes every student to 'target' and returns the number of rows written
+    public long export(Path target, ExportFormat format, boolean gzip, ProgressListener progress) throws IOException {
+        long totalRows = dao.countStudents();
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long start = EXPORT_METRICS.start();
+        try {
+            long rows;
+            try (FileChannel file = FileChannel.open(part, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                // GZIPOutputStream has no channel form; the wrapper copies each full buffer once
+                GZIPOutputStream gzipStream = gzip
+                        ? new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE) : null;
+                WritableByteChannel channel = gzip ? Channels.newChannel(gzipStream) : file;
+                rows = new RowWriter(channel, format, totalRows, progress).writeAll();
+                if (gzipStream != null) {
+                    gzipStream.finish(); // Writes the trailer; close() would close the file channel too
+                }
+                file.force(false);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            EXPORT_METRICS.success(start, rows);
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            EXPORT_METRICS.failure(start);
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    // Encodes rows into the shared buffer; not reusable across exports
+    private final class RowWriter {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final WritableByteChannel channel;
+        private final ExportFormat format;
+        private final long totalRows;
+        private final ProgressListener progress;
+        // Encoded program names by ProgramDictionary code; programs repeat, so each is escaped once
+        private byte[][] programs = new byte[16][];
+        private long rows;
+
+        private RowWriter(WritableByteChannel channel, ExportFormat format, long totalRows, ProgressListener progress) {
+            this.channel = channel;
+            this.format = format;
+            this.totalRows = totalRows;
+            this.progress = progress;
+        }
+
+        private long writeAll() throws IOException {
+            if (format == ExportFormat.CSV) {
+                put(CSV_HEADER);
+            }
+            try {
+                int read = dao.forEachRow(StudentDAO.DEFAULT_FETCH_SIZE, this::row);
+                if (read < 0) {
+                    throw new IOException("Reading the students table failed");
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            flush();
+            if (progress != null) {
+                progress.onProgress(rows, totalRows);
+            }
+            return rows;
+        }
+
+        private void row(int id, byte[] number, byte[] firstName, byte[] lastName, int programCode, int level) {
+            try {
+                if (format == ExportFormat.CSV) {
+                    putInt(id);
+                    put((byte) ',');
+                    putCsv(number);
+                    put((byte) ',');
+                    putCsv(firstName);
+                    put((byte) ',');
+                    putCsv(lastName);
+                    put((byte) ',');
+                    put(program(programCode));
+                    put((byte) ',');
+                    putInt(level);
+                    put(CSV_LINE_END);
+                } else {
+                    put(JSON_ID);
+                    putInt(id);
+                    put(JSON_NUMBER);
+                    putJson(number);
+                    put(JSON_FIRST_NAME);
+                    putJson(firstName);
+                    put(JSON_LAST_NAME);
+                    putJson(lastName);
+                    put(JSON_PROGRAM);
+                    put(program(programCode));
+                    put(JSON_LEVEL);
+                    putInt(level);
+                    put(JSON_LINE_END);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+            if (progress != null && rows % PROGRESS_INTERVAL == 0) {
+                progress.onProgress(rows, totalRows);
+            }
+        }
+
+        private byte[] program(int code) throws IOException {
+            if (code >= programs.length) {
+                programs = Arrays.copyOf(programs, Math.max(code + 1, programs.length * 2));
+            }
+            byte[] encoded = programs[code];
+            if (encoded == null) {
+                byte[] name = ProgramDictionary.nameOf(code).getBytes(StandardCharsets.UTF_8);
+                encoded = format == ExportFormat.CSV ? csvBytes(name) : jsonBytes(name);
+                programs[code] = encoded;
+            }
+            return encoded;
+        }
+
+        // RFC 4180: quote fields holding a comma, quote or line break, doubling inner quotes
+        private void putCsv(byte[] field) throws IOException {
+            if (field == null) {
+                return;
+            }
+            if (!needsCsvQuotes(field)) {
+                put(field);
+                return;
+            }
+            put((byte) '"');
+            for (byte b : field) {
+                if (b == '"') {
+                    put((byte) '"');
+                }
+                put(b);
+            }
+            put((byte) '"');
+        }
+
+        // Bytes >= 0x80 are UTF-8 continuation/lead bytes and pass through unchanged
+        private void putJson(byte[] field) throws IOException {
+            put((byte) '"');
+            if (field != null) {
+                for (byte b : field) {
+                    if (b == '"' || b == '\\') {
+                        put((byte) '\\');
+                        put(b);
+                    } else if (b >= 0 && b < 0x20) {
+                        put((byte) '\\');
+                        put((byte) 'u');
+                        put((byte) '0');
+                        put((byte) '0');
+                        put(HEX[b >> 4]);
+                        put(HEX[b & 0xF]);
+                    } else {
+                        put(b);
+                    }
+                }
+            }
+            put((byte) '"');
+        }
+
+        private void putInt(int value) throws IOException {
+            if (buffer.remaining() < 11) {
+                flush();
+            }
+            if (value < 0) {
+                buffer.put((byte) '-');
+                if (value == Integer.MIN_VALUE) {
+                    put(ascii("2147483648"));
+                    return;
+                }
+                value = -value;
+            }
+            // Digits are written backwards into place, then the position is moved past them
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            int end = buffer.position() + digits;
+            for (int i = end - 1; i >= buffer.position(); i--) {
+                buffer.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            buffer.position(end);
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static boolean needsCsvQuotes(byte[] field) {
+        for (byte b : field) {
+            if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] csvBytes(byte[] field) {
+        if (!needsCsvQuotes(field)) {
+            return field;
+        }
+        String quoted = "\"" + new String(field, StandardCharsets.UTF_8).replace("\"", "\"\"") + "\"";
+        return quoted.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] jsonBytes(byte[] field) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : new String(field, StandardCharsets.UTF_8).toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,328 @@
+package loadgen;
+
+import dal.admins.AdminDAO;
+import dal.admins.AuthService;
+import dal.students.StudentDAO;
+import db.ConnectionPool;
+import db.Database;
+import db.DatabaseExecutor;
+import models.Student;
+import models.StudentGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless load test for the DAO layer: simulates N clerks working on one
+// users.db at the same time, to find how many one database file supports and
+// to catch lock contention regressions. Each session loops over a weighted mix
+// of login, search, add, update and delete through AuthService/AdminDAO and
+// StudentDAO; no Swing is involved.
+//
+//   java -cp <app classes>:sqlite-jdbc.jar loadgen.LoadGenerator --clients=1,4,16 --duration=30
+//
+//   --db=loadgen.db        database file; created, migrated and populated if needed
+//   --students=10000       students to top the table up to before measuring
+//   --admins=20            accounts the sessions log in as (created with real PBKDF2 hashes)
+//   --clients=8            concurrent sessions; a list runs one step per value
+//   --threads=platform     or virtual (JDK 21+)
+//   --warmup=5             seconds per step before measuring
+//   --duration=30          measured seconds per step
+//   --mix=login:2,search:60,add:13,update:20,delete:5
+//   --think-ms=0           pause between one session's operations
+//   --json=<file>          also write the results as JSON, one object per step
+//
+// Every session shares the app's connection pool. Unless -Ddb.pool.size is
+// given it gets one connection per session, as separate app instances would
+// have, so waits show up as SQLITE_BUSY and write latency rather than pool waits.
+public class LoadGenerator {
+    private static final String ADMIN_PREFIX = "loadgen-admin-";
+    private static final String PASSWORD_PREFIX = "loadgen-password-";
+    private static final int SEARCH_LIMIT = 50;
+    private static final int SEED_CHUNK = 50_000;
+
+    private final Map<String, String> options;
+    private final int students;
+    private final int admins;
+    private final int[] clientSteps;
+    private final boolean virtualThreads;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final LoadOperation.Mix mix;
+    private final long thinkMillis;
+
+    private final StudentDAO studentDao = new StudentDAO();
+    // No login cache: every login op verifies the password like a fresh sign-in
+    private final AuthService authService = new AuthService(new AdminDAO(), 0);
+    // Unique per run, so added students never collide with earlier runs' numbers
+    private final String numberPrefix = "LG" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final AtomicInteger nextNumber = new AtomicInteger();
+    private volatile int minId;
+    private final AtomicInteger maxId = new AtomicInteger();
+
+    // Step state, read by the sessions
+    private volatile boolean running;
+    private volatile LoadReport measuring;
+
+    private LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        this.students = Integer.parseInt(option("students", "10000"));
+        this.admins = Math.max(1, Integer.parseInt(option("admins", "20")));
+        String[] steps = option("clients", "8").split(",");
+        this.clientSteps = new int[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            clientSteps[i] = Integer.parseInt(steps[i].trim());
+            if (clientSteps[i] < 1) {
+                throw new IllegalArgumentException("--clients must be positive");
+            }
+        }
+        String threads = option("threads", "platform");
+        if (!threads.equals("platform") && !threads.equals("virtual")) {
+            throw new IllegalArgumentException("--threads must be platform or virtual");
+        }
+        this.virtualThreads = threads.equals("virtual");
+        this.warmupSeconds = Long.parseLong(option("warmup", "5"));
+        this.durationSeconds = Long.parseLong(option("duration", "30"));
+        this.mix = LoadOperation.Mix.parse(option("mix", "login:2,search:60,add:13,update:20,delete:5"));
+        this.thinkMillis = Long.parseLong(option("think-ms", "0"));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseArgs(args);
+        if (options == null) {
+            System.err.println("Usage: LoadGenerator [--db=file] [--students=N] [--admins=N] [--clients=N[,N...]]"
+                    + " [--threads=platform|virtual] [--warmup=s] [--duration=s] [--mix=op:weight,...]"
+                    + " [--think-ms=ms] [--json=file]");
+            System.exit(2);
+        }
+        // Database reads these once, so they must be set before anything touches it
+        String db = options.getOrDefault("db", "loadgen.db");
+        System.setProperty("db.url", "jdbc:sqlite:" + new File(db).getAbsolutePath());
+        LoadGenerator generator;
+        try {
+            generator = new LoadGenerator(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (System.getProperty("db.pool.size") == null) {
+            int maxClients = 1;
+            for (int clients : generator.clientSteps) {
+                maxClients = Math.max(maxClients, clients);
+            }
+            System.setProperty("db.pool.size", Integer.toString(maxClients));
+        }
+        generator.run();
+    }
+
+    // "--name=value" pairs; null when an argument doesn't fit
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 3) {
+                return null;
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf("Database %s, pool size %s, mix %s%n",
+                System.getProperty("db.url"), System.getProperty("db.pool.size"), mix);
+        prepare();
+        ConnectionPool pool = Database.getPool();
+        List<LoadReport> reports = new ArrayList<>();
+        for (int clients : clientSteps) {
+            LoadReport report = runStep(pool, clients);
+            report.print(System.out);
+            reports.add(report);
+        }
+        String json = option("json", null);
+        if (json != null) {
+            writeJson(json, reports);
+        }
+        Database.shutdown();
+    }
+
+    // Tops up the students table and creates the login accounts
+    private void prepare() {
+        int existing = studentDao.countStudents();
+        if (existing < 0) {
+            throw new IllegalStateException("Could not count the students in " + System.getProperty("db.url"));
+        }
+        if (existing < students) {
+            System.out.printf("Adding %,d students...%n", students - existing);
+            Random random = new Random(42);
+            for (int start = existing; start < students; start += SEED_CHUNK) {
+                int count = Math.min(SEED_CHUNK, students - start);
+                List<Student> chunk = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    chunk.add(newStudent(random));
+                }
+                studentDao.addStudents(chunk);
+            }
+        }
+        int total = studentDao.countStudents();
+        minId = Math.max(1, studentDao.findIdAtOffset(0));
+        maxId.set(Math.max(minId, studentDao.findIdAtOffset(Math.max(0, total - 1))));
+
+        AdminDAO adminDao = new AdminDAO();
+        for (int i = 0; i < admins; i++) {
+            if (adminDao.findStoredPassword(ADMIN_PREFIX + i) == null) {
+                adminDao.addSignupAccount(ADMIN_PREFIX + i, PASSWORD_PREFIX + i);
+            }
+        }
+        System.out.printf("%,d students (ids %d..%d), %d login accounts%n", total, minId, maxId.get(), admins);
+    }
+
+    private LoadReport runStep(ConnectionPool pool, int clients) throws InterruptedException {
+        String threads = virtualThreads ? "virtual" : "platform";
+        ExecutorService sessions = newSessionExecutor(clients, virtualThreads);
+        if (sessions == null) {
+            threads = "platform"; // DatabaseExecutor has already said why
+            sessions = newSessionExecutor(clients, false);
+        }
+        LoadReport report = new LoadReport(clients, threads);
+        running = true;
+        for (int i = 0; i < clients; i++) {
+            sessions.execute(this::runSession);
+        }
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        report.begin(pool);
+        long start = System.nanoTime();
+        measuring = report;
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        measuring = null;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+        sessions.shutdown();
+        if (!sessions.awaitTermination(1, TimeUnit.MINUTES)) {
+            System.err.println("Some sessions did not stop within a minute");
+        }
+        report.finish(pool, elapsed);
+        return report;
+    }
+
+    // Null when virtual threads are asked for but not available
+    private static ExecutorService newSessionExecutor(int clients, boolean virtual) {
+        if (virtual) {
+            return DatabaseExecutor.newVirtualThreadExecutor();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "loadgen-session-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(clients, factory);
+    }
+
+    private void runSession() {
+        Random random = ThreadLocalRandom.current();
+        while (running) {
+            LoadOperation operation = mix.pick(random);
+            long start = System.nanoTime();
+            try {
+                execute(operation, random);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // Counted through the DAO metrics; keep the session going
+            }
+            long elapsed = System.nanoTime() - start;
+            LoadReport report = measuring;
+            if (report != null) {
+                report.record(operation, elapsed);
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(thinkMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void execute(LoadOperation operation, Random random) {
+        switch (operation) {
+            case LOGIN: {
+                int admin = random.nextInt(admins);
+                authService.login(ADMIN_PREFIX + admin, PASSWORD_PREFIX + admin);
+                break;
+            }
+            case SEARCH: {
+                String name = pick(random, StudentGenerator.LAST_NAMES);
+                String prefix = name.substring(0, 1 + random.nextInt(3));
+                String program = random.nextInt(4) == 0 ? pick(random, StudentGenerator.PROGRAMS) : null;
+                studentDao.searchStudents(prefix, program, SEARCH_LIMIT);
+                break;
+            }
+            case ADD: {
+                int id = studentDao.addStudent(newStudent(random));
+                if (id > 0) {
+                    maxId.accumulateAndGet(id, Math::max);
+                }
+                break;
+            }
+            case UPDATE: {
+                // Only program and level are written; a deleted id simply matches no row
+                Student student = new Student(randomId(random), "", "", "",
+                        pick(random, StudentGenerator.PROGRAMS), 1 + random.nextInt(4));
+                studentDao.updateStudent(student);
+                break;
+            }
+            case DELETE:
+                studentDao.deleteStudent(randomId(random));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled operation " + operation);
+        }
+    }
+
+    private int randomId(Random random) {
+        int low = minId;
+        int high = maxId.get();
+        return low + random.nextInt(high - low + 1);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private Student newStudent(Random random) {
+        return StudentGenerator.newStudent(random, numberPrefix + nextNumber.incrementAndGet());
+    }
+
+    private static void writeJson(String file, List<LoadReport> reports) {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < reports.size(); i++) {
+            json.append("  ").append(reports.get(i).toJson()).append(i + 1 < reports.size() ? ",\n" : "\n");
+        }
+        json.append("]\n");
+        try {
+            Files.write(Paths.get(file), json.toString().getBytes(StandardCharsets.UTF_8));
+            System.out.println("\nWrote " + file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
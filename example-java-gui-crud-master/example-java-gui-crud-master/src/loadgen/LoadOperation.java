@@ -0,0 +1,121 @@
+package loadgen;
+
+import metrics.Metrics;
+import metrics.OperationMetrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// What a simulated clerk session can do. Each one names the DAO operations it
+// goes through, so its failures can be read from their OperationMetrics.
+enum LoadOperation {
+    LOGIN("login", new String[][]{{"AdminDAO", "findStoredPassword"}, {"AdminDAO", "replaceStoredPassword"}}),
+    SEARCH("search", new String[][]{{"StudentDAO", "searchStudents"}}),
+    ADD("add", new String[][]{{"StudentDAO", "addStudent"}}),
+    UPDATE("update", new String[][]{{"StudentDAO", "updateStudent"}}),
+    DELETE("delete", new String[][]{{"StudentDAO", "deleteStudent"}});
+
+    private final String label;
+    private final String[][] daoOperations;
+
+    LoadOperation(String label, String[][] daoOperations) {
+        this.label = label;
+        this.daoOperations = daoOperations;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    // Failed calls of the DAO operations behind this one, since their metrics were last reset
+    public long countFailures() {
+        long failures = 0;
+        for (String[] operation : daoOperations) {
+            failures += Metrics.operation(operation[0], operation[1]).getFailures();
+        }
+        return failures;
+    }
+
+    public static void resetMetrics() {
+        for (OperationMetrics metrics : Metrics.operations().values()) {
+            metrics.reset();
+        }
+    }
+
+    // Weighted choice between operations, parsed from e.g. "login:2,search:60,add:13,update:20,delete:5"
+    static final class Mix {
+        private final LoadOperation[] operations;
+        private final int[] cumulativeWeights;
+
+        private Mix(LoadOperation[] operations, int[] cumulativeWeights) {
+            this.operations = operations;
+            this.cumulativeWeights = cumulativeWeights;
+        }
+
+        static Mix parse(String spec) {
+            Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split(":");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Expected operation:weight, got '" + part + "'");
+                }
+                int weight = Integer.parseInt(pair[1].trim());
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Negative weight for " + pair[0]);
+                }
+                weights.merge(byLabel(pair[0].trim()), weight, Integer::sum);
+            }
+            List<LoadOperation> operations = new ArrayList<>();
+            int[] cumulative = new int[weights.size()];
+            int total = 0;
+            for (Map.Entry<LoadOperation, Integer> entry : weights.entrySet()) {
+                if (entry.getValue() > 0) {
+                    total += entry.getValue();
+                    cumulative[operations.size()] = total;
+                    operations.add(entry.getKey());
+                }
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("The mix has no operations: " + spec);
+            }
+            int[] trimmed = new int[operations.size()];
+            System.arraycopy(cumulative, 0, trimmed, 0, trimmed.length);
+            return new Mix(operations.toArray(new LoadOperation[0]), trimmed);
+        }
+
+        LoadOperation pick(Random random) {
+            int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int i = 0;
+            while (cumulativeWeights[i] <= ticket) {
+                i++;
+            }
+            return operations[i];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            int previous = 0;
+            for (int i = 0; i < operations.length; i++) {
+                if (i > 0) {
+                    text.append(',');
+                }
+                text.append(operations[i].label).append(':').append(cumulativeWeights[i] - previous);
+                previous = cumulativeWeights[i];
+            }
+            return text.toString();
+        }
+    }
+
+    private static LoadOperation byLabel(String label) {
+        for (LoadOperation operation : values()) {
+            if (operation.label.equalsIgnoreCase(label)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + label + "'");
+    }
+}
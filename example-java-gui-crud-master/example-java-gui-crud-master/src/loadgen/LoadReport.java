@@ -0,0 +1,142 @@
+package loadgen;
+
+import db.ConnectionPool;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.SqlErrorMetrics;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Results of one load step: a fixed number of sessions for a fixed time.
+// Latencies are recorded by the sessions; errors, SQLITE_BUSY/LOCKED counts
+// and pool waits are read from the app's own metrics, which begin() resets.
+final class LoadReport {
+    private final int clients;
+    private final String threads;
+    private final Map<LoadOperation, LatencyHistogram> latencies = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, Long> failures = new EnumMap<>(LoadOperation.class);
+    private long elapsedNanos;
+    private long busy;
+    private long locked;
+    private long otherSqlErrors;
+    private long acquires;
+    private long acquireTimeouts;
+    private long acquireTimeoutsBefore;
+    private double meanAcquireWaitMillis;
+    private double p99AcquireWaitMillis;
+    private double maxAcquireWaitMillis;
+
+    LoadReport(int clients, String threads) {
+        this.clients = clients;
+        this.threads = threads;
+        for (LoadOperation operation : LoadOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    // Called when measuring starts, after warm-up
+    void begin(ConnectionPool pool) {
+        LoadOperation.resetMetrics();
+        Metrics.sqlErrors().reset();
+        pool.getAcquireWait().reset();
+        acquireTimeoutsBefore = pool.getAcquireTimeouts();
+    }
+
+    void record(LoadOperation operation, long nanos) {
+        latencies.get(operation).record(nanos);
+    }
+
+    void finish(ConnectionPool pool, long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        for (LoadOperation operation : LoadOperation.values()) {
+            failures.put(operation, operation.countFailures());
+        }
+        SqlErrorMetrics sqlErrors = Metrics.sqlErrors();
+        busy = sqlErrors.getBusy();
+        locked = sqlErrors.getLocked();
+        otherSqlErrors = sqlErrors.getTotal() - busy - locked;
+        LatencyHistogram acquireWait = pool.getAcquireWait();
+        acquires = acquireWait.getCount();
+        acquireTimeouts = pool.getAcquireTimeouts() - acquireTimeoutsBefore;
+        meanAcquireWaitMillis = acquireWait.getMeanNanos() / 1_000_000.0;
+        p99AcquireWaitMillis = acquireWait.getValueAtQuantile(0.99) / 1_000_000.0;
+        maxAcquireWaitMillis = acquireWait.getMaxNanos() / 1_000_000.0;
+    }
+
+    long getOperations() {
+        long total = 0;
+        for (LatencyHistogram latency : latencies.values()) {
+            total += latency.getCount();
+        }
+        return total;
+    }
+
+    double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getOperations() * 1e9 / elapsedNanos;
+    }
+
+    void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%nclients=%d threads=%s: %,d operations in %.1f s = %,.1f ops/s%n",
+                clients, threads, getOperations(), seconds, getThroughput());
+        out.printf("  %-8s %10s %10s %9s %9s %9s %9s %7s%n",
+                "op", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (LoadOperation operation : LoadOperation.values()) {
+            LatencyHistogram latency = latencies.get(operation);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            out.printf("  %-8s %,10d %,10.1f %9.3f %9.3f %9.3f %9.3f %7d%n",
+                    operation.getLabel(), latency.getCount(), latency.getCount() / seconds,
+                    millis(latency, 0.50), millis(latency, 0.99), millis(latency, 0.999),
+                    latency.getMaxNanos() / 1_000_000.0, failures.get(operation));
+        }
+        out.printf("  SQLITE_BUSY=%d SQLITE_LOCKED=%d other SQL errors=%d%n", busy, locked, otherSqlErrors);
+        out.printf("  pool: %,d acquires, wait mean %.3f ms, p99 %.3f ms, max %.3f ms, %d timeouts%n",
+                acquires, meanAcquireWaitMillis, p99AcquireWaitMillis, maxAcquireWaitMillis, acquireTimeouts);
+    }
+
+    String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"clients\":").append(clients)
+                .append(",\"threads\":\"").append(threads).append('"')
+                .append(",\"seconds\":").append(elapsedNanos / 1e9)
+                .append(",\"operations\":").append(getOperations())
+                .append(",\"opsPerSecond\":").append(getThroughput())
+                .append(",\"sqliteBusy\":").append(busy)
+                .append(",\"sqliteLocked\":").append(locked)
+                .append(",\"otherSqlErrors\":").append(otherSqlErrors)
+                .append(",\"poolAcquires\":").append(acquires)
+                .append(",\"poolAcquireTimeouts\":").append(acquireTimeouts)
+                .append(",\"poolMeanWaitMs\":").append(meanAcquireWaitMillis)
+                .append(",\"poolP99WaitMs\":").append(p99AcquireWaitMillis)
+                .append(",\"poolMaxWaitMs\":").append(maxAcquireWaitMillis)
+                .append(",\"byOperation\":{");
+        boolean first = true;
+        for (LoadOperation operation : LoadOperation.values()) {
+            LatencyHistogram latency = latencies.get(operation);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(operation.getLabel()).append("\":{")
+                    .append("\"count\":").append(latency.getCount())
+                    .append(",\"errors\":").append(failures.get(operation))
+                    .append(",\"p50Ms\":").append(millis(latency, 0.50))
+                    .append(",\"p99Ms\":").append(millis(latency, 0.99))
+                    .append(",\"p999Ms\":").append(millis(latency, 0.999))
+                    .append(",\"maxMs\":").append(latency.getMaxNanos() / 1_000_000.0)
+                    .append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    private static double millis(LatencyHistogram latency, double quantile) {
+        return latency.getValueAtQuantile(quantile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,169 @@
+package metrics;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+// Measures how long the Swing event-dispatch thread takes to run a posted
+// heartbeat. When one waits longer than the threshold, the EDT's stack is
+// captured and the first application frame on it (e.g. StudentPage.loadStudents)
+// is logged as the handler that blocked. Stalls go to a rolling log,
+// edt-stalls.N.log, and every heartbeat latency to a histogram exposed over JMX.
+//
+// -Dui.watchdog=false         disable
+// -Dui.watchdog.intervalMs    time between heartbeats (default 100)
+// -Dui.watchdog.thresholdMs   latency that counts as a stall (default 500)
+public class EdtWatchdog implements EdtWatchdogMXBean {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("ui.watchdog", "true"));
+    private static final long INTERVAL_MS = Long.getLong("ui.watchdog.intervalMs", 100);
+    private static final long THRESHOLD_MS = Long.getLong("ui.watchdog.thresholdMs", 500);
+    private static final String LOG_PATTERN = "edt-stalls.%g.log";
+    private static final int LOG_LIMIT_BYTES = 1024 * 1024;
+    private static final int LOG_FILES = 3;
+    // Frames from these packages are blamed for a stall; Swing and JDK frames are skipped
+    private static final String[] APP_PACKAGES = {"pages.", "dal.", "db.", "models.", "startup.", "Main"};
+
+    private static EdtWatchdog instance;
+
+    private final Logger log = Logger.getLogger("edt-stalls");
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder stalls = new LongAdder();
+    private volatile Thread edt;
+    private volatile String lastStallHandler;
+    private volatile long lastStallNanos;
+    private volatile boolean running = true;
+
+    // Starts the watchdog once per process; later calls return the running one
+    public static synchronized EdtWatchdog start() {
+        if (instance == null && ENABLED) {
+            instance = new EdtWatchdog();
+            instance.openLog();
+            Metrics.register("type=EdtWatchdog", instance);
+            Thread thread = new Thread(instance::run, "edt-watchdog");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.running = false;
+            instance = null;
+        }
+    }
+
+    private void openLog() {
+        log.setUseParentHandlers(false);
+        try {
+            FileHandler handler = new FileHandler(LOG_PATTERN, LOG_LIMIT_BYTES, LOG_FILES, true);
+            handler.setFormatter(new SimpleFormatter());
+            log.addHandler(handler);
+        } catch (IOException e) {
+            // Still report to the console if the log file can't be opened
+            log.setUseParentHandlers(true);
+            e.printStackTrace();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long posted = System.nanoTime();
+            CountDownLatch done = new CountDownLatch(1);
+            SwingUtilities.invokeLater(() -> {
+                edt = Thread.currentThread();
+                latency.record(System.nanoTime() - posted);
+                done.countDown();
+            });
+            try {
+                if (!done.await(THRESHOLD_MS, TimeUnit.MILLISECONDS)) {
+                    onStall(posted, done);
+                }
+                Thread.sleep(INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Captures the stack while the EDT is still stuck, then waits the stall out to log its length
+    private void onStall(long posted, CountDownLatch done) throws InterruptedException {
+        Thread stuck = edt;
+        StackTraceElement[] stack = stuck == null ? new StackTraceElement[0] : stuck.getStackTrace();
+        String handler = blame(stack);
+        log.warning("EDT blocked for over " + THRESHOLD_MS + " ms in " + handler + "\n" + format(stack));
+        done.await();
+        long stalledNanos = System.nanoTime() - posted;
+        stalls.increment();
+        lastStallHandler = handler;
+        lastStallNanos = stalledNanos;
+        log.log(Level.WARNING, String.format("EDT stall ended after %.1f ms in %s",
+                stalledNanos / 1_000_000.0, handler));
+    }
+
+    private static String blame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            for (String prefix : APP_PACKAGES) {
+                if (frame.getClassName().startsWith(prefix)) {
+                    return frame.getClassName() + "." + frame.getMethodName()
+                            + " (" + frame.getFileName() + ":" + frame.getLineNumber() + ")";
+                }
+            }
+        }
+        return stack.length > 0 ? stack[0].toString() : "unknown";
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder out = new StringBuilder();
+        for (StackTraceElement frame : stack) {
+            out.append("\tat ").append(frame).append('\n');
+        }
+        return out.toString();
+    }
+
+    @Override
+    public long getHeartbeats() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return latency.getMeanNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+        return latency.getValueAtQuantile(0.99) / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return latency.getMaxNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public String getLastStallHandler() {
+        return lastStallHandler;
+    }
+
+    @Override
+    public double getLastStallMillis() {
+        return lastStallNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String getLatencyHistogram() {
+        return latency.describeBuckets();
+    }
+}
@@ -0,0 +1,22 @@
+package metrics;
+
+// JMX view of Swing event-dispatch-thread responsiveness
+public interface EdtWatchdogMXBean {
+    long getHeartbeats();
+
+    long getStalls();
+
+    double getMeanLatencyMillis();
+
+    double getP99LatencyMillis();
+
+    double getMaxLatencyMillis();
+
+    // Where the EDT was stuck last time, e.g. "pages.StudentPage.loadStudents (StudentPage.java:412)"
+    String getLastStallHandler();
+
+    double getLastStallMillis();
+
+    // Latency counts per bucket, "upperBoundNanos=count" per line
+    String getLatencyHistogram();
+}
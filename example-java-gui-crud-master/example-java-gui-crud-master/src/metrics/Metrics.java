@@ -0,0 +1,73 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide registry of operation metrics, published as MBeans under the
+// "studentrecords" domain so they show up in JConsole / VisualVM.
+// Set -Dmetrics.jmx=false to keep recording without registering MBeans.
+public class Metrics {
+    public static final String DOMAIN = "studentrecords";
+    private static final boolean JMX_ENABLED = Boolean.parseBoolean(System.getProperty("metrics.jmx", "true"));
+
+    private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private static final SqlErrorMetrics sqlErrors = new SqlErrorMetrics();
+
+    static {
+        register("type=SqlErrors", sqlErrors);
+    }
+
+    // Returns the metrics for component.operation, creating and registering them on first use.
+    // Intended for static final fields, so the lookup happens once per operation.
+    public static OperationMetrics operation(String component, String operation) {
+        return operations.computeIfAbsent(component + "." + operation, name -> {
+            OperationMetrics metrics = new OperationMetrics(name);
+            register("type=Operation,component=" + component + ",name=" + operation, metrics);
+            return metrics;
+        });
+    }
+
+    public static SqlErrorMetrics sqlErrors() {
+        return sqlErrors;
+    }
+
+    public static Map<String, OperationMetrics> operations() {
+        return operations;
+    }
+
+    // Registers an MXBean as DOMAIN:<properties>, replacing any earlier one with that name
+    public static void register(String properties, Object mbean) {
+        if (!JMX_ENABLED) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void unregister(String properties) {
+        if (!JMX_ENABLED) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
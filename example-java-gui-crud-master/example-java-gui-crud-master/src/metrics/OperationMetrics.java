@@ -0,0 +1,102 @@
+package metrics;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency, row and failure counts for one operation. Callers take a start
+// time with start() and finish with exactly one of success() or failure().
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    // 'rowCount' is rows returned or changed; pass 0 when it doesn't apply
+    public void success(long startNanos, long rowCount) {
+        latency.record(System.nanoTime() - startNanos);
+        rows.add(rowCount);
+    }
+
+    // Failed calls are timed too, so a storm of slow SQLITE_BUSY errors shows up in the latencies
+    public void failure(long startNanos, SQLException e) {
+        failure(startNanos);
+        Metrics.sqlErrors().record(name, e);
+    }
+
+    // For failures that aren't SQL errors, e.g. I/O while exporting
+    public void failure(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+        failures.increment();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.getMeanNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getValueAtQuantile(0.50) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP95Millis() {
+        return latency.getValueAtQuantile(0.95) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getValueAtQuantile(0.99) / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        failures.reset();
+        rows.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[calls=%d, failures=%d, rows=%d, mean=%.3f ms, p50=%.3f ms, p99=%.3f ms, max=%.3f ms]",
+                name, getCalls(), getFailures(), getRows(), getMeanMillis(), getP50Millis(), getP99Millis(),
+                getMaxMillis());
+    }
+}
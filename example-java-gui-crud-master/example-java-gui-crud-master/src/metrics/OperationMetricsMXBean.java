@@ -0,0 +1,24 @@
+package metrics;
+
+// JMX view of one timed operation, e.g. StudentDAO.addStudent
+public interface OperationMetricsMXBean {
+    String getName();
+
+    long getCalls();
+
+    long getFailures();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
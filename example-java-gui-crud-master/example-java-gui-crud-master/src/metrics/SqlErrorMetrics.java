@@ -0,0 +1,95 @@
+package metrics;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts SQLExceptions by where they happened and by SQLite result code.
+// Most of them are still only printed by the catch blocks that see them;
+// this is what makes them visible without reading the console.
+public class SqlErrorMetrics implements SqlErrorMetricsMXBean {
+    // Primary SQLite result codes; extended codes keep these in their low byte
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final LongAdder locked = new LongAdder();
+    private final LongAdder constraint = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> bySource = new ConcurrentHashMap<>();
+    private volatile String lastError;
+
+    public void record(String source, SQLException e) {
+        int code = primaryCode(e);
+        total.increment();
+        if (code == SQLITE_BUSY) {
+            busy.increment();
+        } else if (code == SQLITE_LOCKED) {
+            locked.increment();
+        } else if (code == SQLITE_CONSTRAINT) {
+            constraint.increment();
+        }
+        bySource.computeIfAbsent(source + ": " + code, key -> new LongAdder()).increment();
+        lastError = source + ": " + e.getMessage();
+    }
+
+    // The driver reports the result code as the vendor error code; fall back
+    // to the message for drivers or wrappers that don't
+    private static int primaryCode(SQLException e) {
+        int code = e.getErrorCode() & 0xFF;
+        if (code == 0 && e.getMessage() != null) {
+            if (e.getMessage().contains("SQLITE_BUSY")) {
+                return SQLITE_BUSY;
+            }
+            if (e.getMessage().contains("SQLITE_LOCKED")) {
+                return SQLITE_LOCKED;
+            }
+        }
+        return code;
+    }
+
+    @Override
+    public long getTotal() {
+        return total.sum();
+    }
+
+    @Override
+    public long getBusy() {
+        return busy.sum();
+    }
+
+    @Override
+    public long getLocked() {
+        return locked.sum();
+    }
+
+    @Override
+    public long getConstraintViolations() {
+        return constraint.sum();
+    }
+
+    @Override
+    public Map<String, Long> getCountsBySource() {
+        Map<String, Long> counts = new TreeMap<>();
+        bySource.forEach((source, count) -> counts.put(source, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public void reset() {
+        total.reset();
+        busy.reset();
+        locked.reset();
+        constraint.reset();
+        bySource.clear();
+        lastError = null;
+    }
+}
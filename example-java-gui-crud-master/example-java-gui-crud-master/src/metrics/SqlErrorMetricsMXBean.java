@@ -0,0 +1,23 @@
+package metrics;
+
+import java.util.Map;
+
+// JMX view of SQLExceptions caught anywhere in the db and dal packages
+public interface SqlErrorMetricsMXBean {
+    long getTotal();
+
+    // SQLITE_BUSY: another connection held the write lock past busy_timeout
+    long getBusy();
+
+    // SQLITE_LOCKED: a conflict within the same connection or shared cache
+    long getLocked();
+
+    long getConstraintViolations();
+
+    // Error count per "Component.method: code"
+    Map<String, Long> getCountsBySource();
+
+    String getLastError();
+
+    void reset();
+}
@@ -0,0 +1,65 @@
+package models;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide dictionary of program names. There are only a handful of
+// distinct programs, so each one is kept once and referred to by a small
+// int code; Student, StudentColumnStore and the program filter compare codes
+// instead of strings. Codes are handed out in first-seen order and are only
+// meaningful inside this JVM (they are not the programs.id values in the database).
+public final class ProgramDictionary {
+    public static final int NONE = -1;
+
+    private static final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    // Copy-on-write, so nameOf never locks
+    private static volatile String[] names = new String[0];
+
+    private ProgramDictionary() {}
+
+    // Code for the program, adding it on first use; NONE for null
+    public static int codeOf(String program) {
+        if (program == null) {
+            return NONE;
+        }
+        Integer code = codes.get(program);
+        return code != null ? code : add(program);
+    }
+
+    // Code for the program if it is already known, otherwise NONE. Lookups
+    // (e.g. a filter value) shouldn't grow the dictionary.
+    public static int find(String program) {
+        if (program == null) {
+            return NONE;
+        }
+        Integer code = codes.get(program);
+        return code == null ? NONE : code;
+    }
+
+    // The shared String for a code; null for NONE
+    public static String nameOf(int code) {
+        return code == NONE ? null : names[code];
+    }
+
+    // The shared instance equal to 'program', so duplicates read from the database can be dropped
+    public static String canonical(String program) {
+        return nameOf(codeOf(program));
+    }
+
+    public static int size() {
+        return names.length;
+    }
+
+    private static synchronized int add(String program) {
+        Integer code = codes.get(program);
+        if (code != null) {
+            return code; // Another thread added it first
+        }
+        String[] current = names;
+        String[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = program;
+        names = grown; // Published before the code so nameOf never sees a missing entry
+        codes.put(program, current.length);
+        return current.length;
+    }
+}
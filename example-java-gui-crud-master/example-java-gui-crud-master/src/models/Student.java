@@ -5,7 +5,8 @@ public class Student {
     private String studentNumber;
     private String firstName;
     private String lastName;
-    private String program;
+    // Programs repeat a lot, so only a ProgramDictionary code is kept per student
+    private int programCode = ProgramDictionary.NONE;
     private int level;
 
     public Student() {}
@@ -22,7 +23,7 @@ public class Student {
         this.studentNumber = studentNumber;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.program = program;
+        this.programCode = ProgramDictionary.codeOf(program);
         this.level = level;
     }
 
@@ -60,11 +61,15 @@ public class Student {
     }
 
     public String getProgram() {
-        return program;
+        return ProgramDictionary.nameOf(programCode);
     }
 
     public void setProgram(String program) {
-        this.program = program;
+        this.programCode = ProgramDictionary.codeOf(program);
+    }
+
+    public int getProgramCode() {
+        return programCode;
     }
 
     public int getLevel() {
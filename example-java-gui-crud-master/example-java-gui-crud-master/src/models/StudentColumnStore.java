@@ -0,0 +1,415 @@
+package models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Column-oriented storage for many students: ids and levels in int arrays,
+// programs as ProgramDictionary codes, and the student number and names as
+// length-prefixed UTF-8 in one shared byte array. A row costs roughly 16
+// bytes plus its text instead of a Student, three Strings and their boxes.
+// Strings and Students are only created when a row is read.
+//
+// Not thread-safe: build it on one thread, then hand it over (e.g. to the EDT).
+public class StudentColumnStore {
+    private static final int NUMBER = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+
+    private int size;
+    private int[] ids;
+    private int[] levels;
+    private int[] programCodes;
+    private int[] textStart;
+
+    // Student number, first name, last name per row, each as [len hi][len lo][utf-8 bytes]
+    private byte[] text;
+    private int textUsed;
+    private int textGarbage;
+
+    // True while ids are strictly increasing, which makes indexOf a binary search
+    private boolean idOrdered = true;
+
+    public StudentColumnStore() {
+        this(16);
+    }
+
+    public StudentColumnStore(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        ids = new int[capacity];
+        levels = new int[capacity];
+        programCodes = new int[capacity];
+        textStart = new int[capacity];
+        text = new byte[capacity * 24];
+    }
+
+    private StudentColumnStore(int[] ids, int[] levels, int[] programCodes, int[] textStart, byte[] text, int size) {
+        this.ids = ids;
+        this.levels = levels;
+        this.programCodes = programCodes;
+        this.textStart = textStart;
+        this.text = text;
+        this.size = size;
+        this.textUsed = text.length;
+        for (int row = 1; row < size && idOrdered; row++) {
+            idOrdered = ids[row] > ids[row - 1];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Adds a row and returns its index; the Student itself is not kept. Rows
+    // stay in id order: normally that's an append, but an id lower than the
+    // last one (e.g. another client's insert seen late) is slotted into place.
+    public int add(Student student) {
+        if (!idOrdered || size == 0 || student.getId() > ids[size - 1]) {
+            return append(student);
+        }
+        int found = Arrays.binarySearch(ids, 0, size, student.getId());
+        if (found >= 0) {
+            return append(student); // Duplicate id
+        }
+        ensureCapacity();
+        int row = -found - 1;
+        int tail = size - row;
+        System.arraycopy(ids, row, ids, row + 1, tail);
+        System.arraycopy(levels, row, levels, row + 1, tail);
+        System.arraycopy(programCodes, row, programCodes, row + 1, tail);
+        System.arraycopy(textStart, row, textStart, row + 1, tail);
+        set(row, student);
+        size++;
+        return row;
+    }
+
+    // Adds a row at the end whatever its id, e.g. to keep ranked search results in rank order
+    public int append(Student student) {
+        ensureCapacity();
+        if (size > 0 && student.getId() <= ids[size - 1]) {
+            idOrdered = false;
+        }
+        set(size, student);
+        return size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            programCodes = Arrays.copyOf(programCodes, capacity);
+            textStart = Arrays.copyOf(textStart, capacity);
+        }
+    }
+
+    private void set(int row, Student student) {
+        ids[row] = student.getId();
+        levels[row] = student.getLevel();
+        programCodes[row] = student.getProgramCode();
+        textStart[row] = appendText(student.getStudentNumber(), student.getFirstName(), student.getLastName());
+    }
+
+    // Row of the student with this id, or -1. Binary search while rows are in
+    // id order (the normal case); a linear scan otherwise, e.g. ranked search results.
+    public int indexOf(int id) {
+        if (idOrdered) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            return row >= 0 ? row : -1;
+        }
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    public int getId(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public int getLevel(int row) {
+        checkRow(row);
+        return levels[row];
+    }
+
+    public int getProgramCode(int row) {
+        checkRow(row);
+        return programCodes[row];
+    }
+
+    public String getProgram(int row) {
+        return ProgramDictionary.nameOf(getProgramCode(row));
+    }
+
+    public String getStudentNumber(int row) {
+        return readText(row, NUMBER);
+    }
+
+    public String getFirstName(int row) {
+        return readText(row, FIRST_NAME);
+    }
+
+    public String getLastName(int row) {
+        return readText(row, LAST_NAME);
+    }
+
+    // Builds a Student for one row; callers shouldn't hold on to many of these
+    public Student getStudent(int row) {
+        checkRow(row);
+        return new Student(ids[row], getStudentNumber(row), getFirstName(row), getLastName(row),
+                ProgramDictionary.nameOf(programCodes[row]), levels[row]);
+    }
+
+    // Only program and level can change after a student is added
+    public void update(int row, String program, int level) {
+        checkRow(row);
+        programCodes[row] = ProgramDictionary.codeOf(program);
+        levels[row] = level;
+    }
+
+    public void remove(int row) {
+        checkRow(row);
+        textGarbage += textLength(row);
+        int tail = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, tail);
+        System.arraycopy(levels, row + 1, levels, row, tail);
+        System.arraycopy(programCodes, row + 1, programCodes, row, tail);
+        System.arraycopy(textStart, row + 1, textStart, row, tail);
+        size--;
+        if (textGarbage > textUsed / 2 && textGarbage > 4096) {
+            compactText();
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        textUsed = 0;
+        textGarbage = 0;
+        idOrdered = true;
+    }
+
+    // Writes the rows in the little-endian block layout readColumns expects:
+    // row count, program names, the four int columns, then the text arena.
+    // Program codes are JVM-local, so they are written as indexes into the
+    // name list. Call from the thread that owns the store.
+    public void writeColumns(WritableByteChannel out) throws IOException {
+        if (textGarbage > 0) {
+            compactText();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        Map<Integer, Integer> indexByCode = new HashMap<>();
+        int[] programIndexes = new int[size];
+        for (int row = 0; row < size; row++) {
+            Integer index = indexByCode.putIfAbsent(programCodes[row], indexByCode.size());
+            programIndexes[row] = index != null ? index : indexByCode.size() - 1;
+        }
+        String[] programs = new String[indexByCode.size()];
+        indexByCode.forEach((code, index) -> programs[index] = ProgramDictionary.nameOf(code));
+
+        buffer.putInt(size);
+        buffer.putInt(programs.length);
+        for (String program : programs) {
+            byte[] name = program.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < 4 + name.length) {
+                drain(buffer, out);
+            }
+            buffer.putInt(name.length);
+            buffer.put(name);
+        }
+        writeInts(ids, buffer, out);
+        writeInts(levels, buffer, out);
+        writeInts(programIndexes, buffer, out);
+        writeInts(textStart, buffer, out);
+        if (buffer.remaining() < 4) {
+            drain(buffer, out);
+        }
+        buffer.putInt(textUsed);
+        drain(buffer, out);
+        ByteBuffer arena = ByteBuffer.wrap(text, 0, textUsed);
+        while (arena.hasRemaining()) {
+            out.write(arena);
+        }
+    }
+
+    // Reads what writeColumns wrote, starting at the buffer's position (which
+    // is left after the data). Columns are bulk-copied, so a memory-mapped
+    // buffer turns into a store at close to memory speed. Returns null if the
+    // data is truncated or corrupt: every count is checked against what is
+    // left in the buffer before anything is allocated from it, and every
+    // program index and text offset is checked before the store is built.
+    public static StudentColumnStore readColumns(ByteBuffer in) {
+        in.order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < 8) {
+            return null;
+        }
+        int size = in.getInt();
+        int programCount = in.getInt();
+        // Each program name takes at least its 4-byte length, each row 16 bytes of columns
+        if (!fits(in, programCount, 4)) {
+            return null;
+        }
+        int[] codeByIndex = new int[programCount];
+        for (int i = 0; i < codeByIndex.length; i++) {
+            int length = in.remaining() >= 4 ? in.getInt() : -1;
+            if (!fits(in, length, 1)) {
+                return null;
+            }
+            byte[] name = new byte[length];
+            in.get(name);
+            codeByIndex[i] = ProgramDictionary.codeOf(new String(name, StandardCharsets.UTF_8));
+        }
+        if (!fits(in, size, 16)) {
+            return null;
+        }
+        int capacity = Math.max(16, size);
+        int[] ids = readInts(in, size, capacity);
+        int[] levels = readInts(in, size, capacity);
+        int[] programCodes = readInts(in, size, capacity);
+        int[] textStart = readInts(in, size, capacity);
+        int textLength = in.remaining() >= 4 ? in.getInt() : -1;
+        if (!fits(in, textLength, 1)) {
+            return null;
+        }
+        byte[] text = new byte[textLength];
+        in.get(text);
+        for (int row = 0; row < size; row++) {
+            int index = programCodes[row];
+            if (index < 0 || index >= codeByIndex.length || !textFits(text, textStart[row])) {
+                return null;
+            }
+            programCodes[row] = codeByIndex[index];
+        }
+        return new StudentColumnStore(ids, levels, programCodes, textStart, text, size);
+    }
+
+    // Whether 'count' items of 'bytesEach' can still be read from 'in'
+    private static boolean fits(ByteBuffer in, int count, int bytesEach) {
+        return count >= 0 && count <= in.remaining() / bytesEach;
+    }
+
+    // Whether a row's three length-prefixed fields starting at 'offset' lie inside 'text'
+    private static boolean textFits(byte[] text, int offset) {
+        if (offset < 0) {
+            return false;
+        }
+        for (int field = NUMBER; field <= LAST_NAME; field++) {
+            if (offset > text.length - 2) {
+                return false;
+            }
+            offset += 2 + (((text[offset] & 0xFF) << 8) | (text[offset + 1] & 0xFF));
+        }
+        return offset <= text.length;
+    }
+
+    private void writeInts(int[] column, ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        int row = 0;
+        while (row < size) {
+            int count = Math.min(size - row, buffer.remaining() / 4);
+            if (count == 0) {
+                drain(buffer, out);
+                continue;
+            }
+            buffer.asIntBuffer().put(column, row, count);
+            buffer.position(buffer.position() + count * 4);
+            row += count;
+        }
+    }
+
+    private static int[] readInts(ByteBuffer in, int count, int capacity) {
+        int[] column = new int[capacity];
+        in.asIntBuffer().get(column, 0, count);
+        in.position(in.position() + count * 4);
+        return column;
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Approximate heap used by the columns, for diagnostics
+    public long estimatedBytes() {
+        return 4L * (ids.length + levels.length + programCodes.length + textStart.length) + text.length;
+    }
+
+    private int appendText(String number, String firstName, String lastName) {
+        byte[][] fields = {
+                number.getBytes(StandardCharsets.UTF_8),
+                firstName.getBytes(StandardCharsets.UTF_8),
+                lastName.getBytes(StandardCharsets.UTF_8)
+        };
+        int needed = 0;
+        for (byte[] field : fields) {
+            if (field.length > MAX_FIELD_BYTES) {
+                throw new IllegalArgumentException("Field longer than " + MAX_FIELD_BYTES + " bytes");
+            }
+            needed += 2 + field.length;
+        }
+        if (textUsed + needed > text.length) {
+            text = Arrays.copyOf(text, Math.max(textUsed + needed, text.length + (text.length >> 1)));
+        }
+        int start = textUsed;
+        for (byte[] field : fields) {
+            text[textUsed++] = (byte) (field.length >>> 8);
+            text[textUsed++] = (byte) field.length;
+            System.arraycopy(field, 0, text, textUsed, field.length);
+            textUsed += field.length;
+        }
+        return start;
+    }
+
+    private String readText(int row, int field) {
+        checkRow(row);
+        int offset = textStart[row];
+        for (int i = 0; i < field; i++) {
+            offset += 2 + fieldLength(offset);
+        }
+        return new String(text, offset + 2, fieldLength(offset), StandardCharsets.UTF_8);
+    }
+
+    private int fieldLength(int offset) {
+        return ((text[offset] & 0xFF) << 8) | (text[offset + 1] & 0xFF);
+    }
+
+    private int textLength(int row) {
+        int offset = textStart[row];
+        int end = offset;
+        for (int i = 0; i <= LAST_NAME; i++) {
+            end += 2 + fieldLength(end);
+        }
+        return end - offset;
+    }
+
+    // Rewrites live rows' text contiguously, dropping bytes of removed rows
+    private void compactText() {
+        byte[] compacted = new byte[Math.max(16, textUsed - textGarbage)];
+        int used = 0;
+        for (int row = 0; row < size; row++) {
+            int length = textLength(row);
+            System.arraycopy(text, textStart[row], compacted, used, length);
+            textStart[row] = used;
+            used += length;
+        }
+        text = compacted;
+        textUsed = used;
+        textGarbage = 0;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic students for load tests, benchmarks and the in-memory backend.
+// The same Random sequence always gives the same names, program and level.
+public final class StudentGenerator {
+    public static final String[] PROGRAMS = {
+            "BSCS", "BSIT", "BSIS", "BSEMC", "BSN", "BSA", "BSBA", "BSED", "BEED", "BSCE", "BSEE", "BSME"
+    };
+    public static final String[] FIRST_NAMES = {
+            "Maria", "Jose", "Ana", "Juan", "Mark", "Angel", "John", "Grace", "Paul", "Joy",
+            "Michael", "Kristine", "James", "Camille", "Daniel", "Nicole", "Carlo", "Patricia", "Miguel", "Andrea"
+    };
+    public static final String[] LAST_NAMES = {
+            "Santos", "Reyes", "Cruz", "Bautista", "Ocampo", "Garcia", "Mendoza", "Torres", "Lopez", "Smith",
+            "Ramos", "Flores", "Villanueva", "Castillo", "Aquino", "Navarro", "Dela Cruz", "Gonzales", "Rivera", "Smithson"
+    };
+
+    private StudentGenerator() {
+    }
+
+    // Students numbered "2024-0000000" onwards from 'firstIndex', not yet saved (id 0)
+    public static List<Student> generate(Random random, int firstIndex, int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(newStudent(random, String.format("2024-%07d", firstIndex + i)));
+        }
+        return students;
+    }
+
+    public static Student newStudent(Random random, String studentNumber) {
+        return new Student(0,
+                studentNumber,
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                PROGRAMS[random.nextInt(PROGRAMS.length)],
+                1 + random.nextInt(4));
+    }
+}
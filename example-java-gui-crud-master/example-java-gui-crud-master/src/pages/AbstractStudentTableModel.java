@@ -0,0 +1,66 @@
+package pages;
+
+import models.Student;
+
+import javax.swing.table.AbstractTableModel;
+
+// Column layout and delta operations shared by the in-memory and paged student models
+public abstract class AbstractStudentTableModel extends AbstractTableModel {
+    public static final String[] COLUMNS = {"ID", "Student Number", "First Name", "Last Name", "Program", "Level"};
+    private static final Class<?>[] COLUMN_TYPES = {Integer.class, String.class, String.class, String.class, String.class, Integer.class};
+
+    // Returns the student shown at a model row, or null if it is not loaded yet
+    public abstract Student getStudentAt(int row);
+
+    public abstract void addStudent(Student student);
+
+    // Replaces the row with the same id; returns the previous value or null
+    public abstract Student updateStudent(Student student);
+
+    // Removes the row with the given id; returns the removed value or null
+    public abstract Student removeStudent(int id);
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_TYPES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make table read-only
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student student = getStudentAt(row);
+        if (student == null) {
+            return null;
+        }
+        switch (column) {
+            case 0:
+                return student.getId();
+            case 1:
+                return student.getStudentNumber();
+            case 2:
+                return student.getFirstName();
+            case 3:
+                return student.getLastName();
+            case 4:
+                return student.getProgram();
+            case 5:
+                return student.getLevel();
+            default:
+                throw new IndexOutOfBoundsException("No column " + column);
+        }
+    }
+}
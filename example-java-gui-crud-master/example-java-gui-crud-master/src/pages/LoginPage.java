@@ -1,6 +1,7 @@
 package pages;
 
-import dal.admins.AdminDAO;
+import dal.admins.AuthService;
+import startup.StartupTimeline;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,7 +13,8 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class LoginPage extends JFrame {
-    private final AdminDAO adminDao = new AdminDAO();
+    // Shared so the verified-login cache survives logout and a new LoginPage
+    private static final AuthService authService = new AuthService();
     private final JTextField usernameField;
     private final JPasswordField passwordField;
     private final JButton logInButton;
@@ -197,6 +199,7 @@ public class LoginPage extends JFrame {
 
         setLocationRelativeTo(null);
         setVisible(true);
+        StartupTimeline.mark(StartupTimeline.LOGIN_FRAME);
 
         // Set focus to username field on startup
         usernameField.requestFocus();
@@ -254,15 +257,25 @@ public class LoginPage extends JFrame {
         }
 
         showStatus("Authenticating...", Color.BLUE);
-
-        try {
-            boolean valid = adminDao.checkIfAdminExists(username, password);
-            if (valid) {
+        setButtonsEnabled(false);
+
+        // Password hashing is slow on purpose, so it runs off the EDT
+        authService.loginAsync(username, password).whenComplete((valid, error) -> SwingUtilities.invokeLater(() -> {
+            setButtonsEnabled(true);
+            if (error != null) {
+                error.printStackTrace();
+                showStatus("Login error occurred.", Color.RED);
+                JOptionPane.showMessageDialog(this,
+                        "An error occurred during login. Please try again.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            } else if (valid) {
                 showStatus("Login successful! Redirecting...", Color.GREEN);
                 JOptionPane.showMessageDialog(this,
                         "Welcome, " + username + "!\nLogin successful!",
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
+                StartupTimeline.mark(StartupTimeline.LOGGED_IN);
                 new StudentPage();
                 dispose();
             } else {
@@ -272,18 +285,15 @@ public class LoginPage extends JFrame {
                         "Invalid username or password.\nAttempt " + loginAttempts + " of " + MAX_ATTEMPTS,
                         "Login Failed",
                         JOptionPane.ERROR_MESSAGE);
+                if (loginAttempts >= MAX_ATTEMPTS) {
+                    logInButton.setEnabled(false);
+                }
 
                 // Clear password field after failed attempt
                 passwordField.setText("");
                 passwordField.requestFocus();
             }
-        } catch (Exception e) {
-            showStatus("Login error occurred.", Color.RED);
-            JOptionPane.showMessageDialog(this,
-                    "An error occurred during login. Please try again.",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        }));
     }
 
     // NEW: Handles signups for new accounts
@@ -304,39 +314,46 @@ public class LoginPage extends JFrame {
         }
 
         showStatus("Creating account...", Color.BLUE);
-
-        try {
-            boolean userExists = adminDao.checkIfAdminExists(username, password);
-            if (userExists) {
+        setButtonsEnabled(false);
+
+        // One INSERT ... ON CONFLICT: the unique username index rejects duplicates atomically
+        authService.signupAsync(username, password).whenComplete((created, error) -> SwingUtilities.invokeLater(() -> {
+            setButtonsEnabled(true);
+            if (error != null) {
+                error.printStackTrace();
+                showStatus("Failed to create account.", Color.RED);
+                JOptionPane.showMessageDialog(this,
+                        "Failed to create account. Please try again.\nError: " + error.getMessage(),
+                        "Registration Error",
+                        JOptionPane.ERROR_MESSAGE);
+            } else if (!created) {
                 showStatus("Username already exists.", Color.RED);
                 JOptionPane.showMessageDialog(this,
                         "Username already exists. Please choose a different username.",
                         "Registration Failed",
                         JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-
-            // Proceed with account creation
-            adminDao.addSignupAccount(username, password);
-            showStatus("Account created successfully!", Color.GREEN);
-            int choice = JOptionPane.showConfirmDialog(this,
-                    "Account created successfully for: " + username + "\nWould you like to login now?",
-                    "Registration Successful",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.QUESTION_MESSAGE);
-
-            if (choice == JOptionPane.YES_OPTION) {
-                new StudentPage();
-                dispose();
             } else {
-                clearFields();
+                showStatus("Account created successfully!", Color.GREEN);
+                int choice = JOptionPane.showConfirmDialog(this,
+                        "Account created successfully for: " + username + "\nWould you like to login now?",
+                        "Registration Successful",
+                        JOptionPane.YES_NO_OPTION,
+                        JOptionPane.QUESTION_MESSAGE);
+
+                if (choice == JOptionPane.YES_OPTION) {
+                    StartupTimeline.mark(StartupTimeline.LOGGED_IN);
+                    new StudentPage();
+                    dispose();
+                } else {
+                    clearFields();
+                }
             }
-        } catch (Exception e) {
-            showStatus("Failed to create account.", Color.RED);
-            JOptionPane.showMessageDialog(this,
-                    "Failed to create account. Please try again.\nError: " + e.getMessage(),
-                    "Registration Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        }));
+    }
+
+    // Keeps a second click from starting another login or signup while one is running
+    private void setButtonsEnabled(boolean enabled) {
+        logInButton.setEnabled(enabled && loginAttempts < MAX_ATTEMPTS);
+        signInButton.setEnabled(enabled);
     }
-}
\ No newline at end of file
+}
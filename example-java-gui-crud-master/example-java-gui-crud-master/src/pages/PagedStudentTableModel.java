@@ -0,0 +1,155 @@
+package pages;
+
+import dal.students.AsyncStudentDAO;
+import models.Student;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+// Lazy table model for very large tables. Rows are fetched a page at a time
+// with keyset queries when the viewport asks for them, and only a bounded
+// number of pages is kept. All state is touched on the EDT only.
+public class PagedStudentTableModel extends AbstractStudentTableModel {
+    private static final Executor EDT = SwingUtilities::invokeLater;
+
+    private final AsyncStudentDAO asyncDao;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private int rowCount;
+
+    // Least recently used page first
+    private final LinkedHashMap<Integer, List<Student>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    // Last id before each page, learned as pages arrive, so the next page is a pure keyset query
+    private final Map<Integer, Integer> pageStartAfterId = new HashMap<>();
+    private final Set<Integer> pendingPages = new HashSet<>();
+    private int generation;
+
+    public PagedStudentTableModel(AsyncStudentDAO asyncDao, int rowCount, int pageSize, int maxCachedPages) {
+        this.asyncDao = asyncDao;
+        this.rowCount = rowCount;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        pageStartAfterId.put(0, 0);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public Student getStudentAt(int row) {
+        int page = row / pageSize;
+        List<Student> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % pageSize;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    private void requestPage(int page) {
+        if (!pendingPages.add(page)) {
+            return;
+        }
+        int requestGeneration = generation;
+        asyncDao.getStudentPage(pageStartAfterId.get(page), page * pageSize, pageSize)
+                .whenCompleteAsync((rows, error) -> {
+                    if (requestGeneration != generation) {
+                        return; // Offsets moved under this request; it will be re-requested
+                    }
+                    pendingPages.remove(page);
+                    if (error != null) {
+                        error.printStackTrace();
+                        return;
+                    }
+                    storePage(page, rows);
+                }, EDT);
+    }
+
+    private void storePage(int page, List<Student> rows) {
+        pages.put(page, new ArrayList<>(rows));
+        if (!rows.isEmpty()) {
+            pageStartAfterId.put(page + 1, rows.get(rows.size() - 1).getId());
+        }
+        Iterator<Integer> eldest = pages.keySet().iterator();
+        while (pages.size() > maxCachedPages && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+        int first = page * pageSize;
+        int last = Math.min(rowCount, first + pageSize) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    // New ids are always the largest, so an added student is the last row
+    @Override
+    public void addStudent(Student student) {
+        int row = rowCount++;
+        List<Student> lastPage = pages.get(row / pageSize);
+        if (lastPage != null) {
+            lastPage.add(student);
+        }
+        fireTableRowsInserted(row, row);
+    }
+
+    @Override
+    public Student updateStudent(Student student) {
+        for (Map.Entry<Integer, List<Student>> entry : pages.entrySet()) {
+            List<Student> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).getId() == student.getId()) {
+                    Student previous = rows.set(i, student);
+                    int row = entry.getKey() * pageSize + i;
+                    fireTableRowsUpdated(row, row);
+                    return previous;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Every row after the deleted one shifts up, so cached pages from that
+    // point on (and their learned start ids) are dropped and refetched lazily.
+    // Call only for a student that was really deleted: if its page has been
+    // evicted the row can't be located, so every page is refetched instead.
+    @Override
+    public Student removeStudent(int id) {
+        for (Map.Entry<Integer, List<Student>> entry : pages.entrySet()) {
+            List<Student> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).getId() == id) {
+                    int page = entry.getKey();
+                    Student removed = rows.get(i);
+                    invalidateFrom(page);
+                    rowCount--;
+                    int row = page * pageSize + i;
+                    fireTableRowsDeleted(row, row);
+                    return removed;
+                }
+            }
+        }
+        invalidateFrom(0);
+        rowCount--;
+        fireTableDataChanged();
+        return null;
+    }
+
+    private void invalidateFrom(int page) {
+        generation++;
+        pendingPages.clear();
+        pages.keySet().removeIf(p -> p >= page);
+        pageStartAfterId.keySet().removeIf(p -> p > page);
+    }
+}
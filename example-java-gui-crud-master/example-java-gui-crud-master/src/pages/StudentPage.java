@@ -1,24 +1,82 @@
 package pages;
 
+import dal.students.AsyncStudentDAO;
+import dal.students.CachingStudentDAO;
+import dal.students.ProgramCatalog;
+import dal.students.StudentChangePoller;
+import dal.students.StudentChangeSet;
 import dal.students.StudentDAO;
+import dal.students.StudentRepositories;
+import dal.students.StudentRepository;
+import dal.students.StudentSearchIndex;
+import dal.students.StudentSnapshot;
+import dal.students.StudentWriteBehindQueue;
+import db.DatabaseExecutor;
+import export.ExportFormat;
+import export.StudentExporter;
+import models.ProgramDictionary;
 import models.Student;
+import models.StudentColumnStore;
+import startup.StartupTimeline;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.List;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class StudentPage extends JFrame {
-    private final StudentDAO studentDao = new StudentDAO();
+    // Runs completion callbacks on the event dispatch thread
+    private static final Executor EDT = SwingUtilities::invokeLater;
+    // Tables larger than this are shown through the lazy, keyset-paginated model
+    private static final int PAGED_THRESHOLD = Integer.getInteger("students.pagedThreshold", 50_000);
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 50;
+    // Searches run in SQLite after a short typing pause and show at most this many rows
+    private static final int SEARCH_LIMIT = 1000;
+    private static final int SEARCH_DELAY_MS = 150;
+
+    // SQLite (with an LRU cache for lookups) unless -Dstudents.backend=memory
+    private final StudentRepository studentDao = StudentRepositories.create();
+    private final AsyncStudentDAO asyncDao = new AsyncStudentDAO(studentDao);
+    // The rest only apply to the shared SQLite database
+    private final boolean sqlite = studentDao instanceof StudentDAO;
+    // Batches adds, updates and deletes into group commits; null unless -Dstudents.writeBehind=true
+    private final StudentWriteBehindQueue writeBehind =
+            sqlite && StudentWriteBehindQueue.ENABLED ? new StudentWriteBehindQueue((StudentDAO) studentDao) : null;
+    // Applies other clients' edits from the change feed; -Dstudents.pollIntervalMs=0 turns it off
+    private final StudentChangePoller changePoller = sqlite && StudentChangePoller.DEFAULT_INTERVAL_MS > 0
+            ? new StudentChangePoller(studentDao, EDT, this::applyRemoteChanges) : null;
+    // Local copy of the table for a fast warm start; null unless -Dstudents.snapshot=true
+    private final StudentSnapshot snapshot = sqlite && StudentSnapshot.ENABLED ? new StudentSnapshot() : null;
+    // Answers searches locally while the whole table is in memory
+    private final StudentSearchIndex searchIndex = new StudentSearchIndex();
+    // Distinct programs with counts for the filter dropdown
+    private final ProgramCatalog programCatalog = new ProgramCatalog();
+    private Map<String, Integer> programCounts = Map.of();
     private JTable table;
-    private DefaultTableModel tableModel;
-    private TableRowSorter<DefaultTableModel> sorter; // NEW: For sorting table
+    private AbstractStudentTableModel tableModel; // Model currently shown in the table
+    private AbstractStudentTableModel browseModel; // Whole table, in memory or paged
+    private StudentTableModel searchResults; // Non-null while a search or program filter is active
+    private int selectedId = -1; // Student shown in the form, -1 for none
+    private TableRowSorter<StudentTableModel> sorter; // NEW: For sorting table (null in paged mode)
+    private Timer searchTimer;
+    private int searchSequence;
+    private boolean updatingProgramFilter;
     private JTextField studentNumberField;
     private JTextField firstNameField;
     private JTextField lastNameField;
@@ -28,7 +86,10 @@ public class StudentPage extends JFrame {
     private JComboBox<String> programFilterCombo; // NEW: Program filter
     private JLabel statusLabel; // NEW: Status feedback
     private JLabel recordCountLabel; // NEW: Record count display
+    private JProgressBar progressBar; // Shown while database work is in flight
+    private int pendingOperations;
     private JButton addButton, updateButton, deleteButton, logoutButton, clearButton, refreshButton; // NEW: Additional buttons
+    private JButton exportButton;
 
     public StudentPage() {
 
@@ -40,18 +101,37 @@ public class StudentPage extends JFrame {
         // Set background color
         getContentPane().setBackground(new Color(245, 245, 245));
 
+        // Keep the search index in step with every add, update and delete
+        studentDao.addChangeListener(searchIndex);
+        studentDao.addChangeListener(programCatalog);
+        programCatalog.addChangeListener(() -> SwingUtilities.invokeLater(this::updateProgramFilter));
+
+        if (writeBehind != null) {
+            asyncDao.setWriteBehind(writeBehind);
+        }
+        // Runs before EXIT_ON_CLOSE exits, so queued writes reach the database first
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                stopBackgroundWork();
+            }
+        });
+
         // Create main panels
         createFormPanel();
         setFieldsEditable(true);
         createTablePanel();
         createStatusPanel();
 
-        // Load initial data
-        loadStudents();
-        updateRecordCount();
-
         setLocationRelativeTo(null);
         setVisible(true);
+        StartupTimeline.mark(StartupTimeline.STUDENT_FRAME);
+
+        // Load initial data in the background once the window is showing
+        openStudents();
+        if (changePoller != null) {
+            changePoller.start(); // Idle until the load above sets its starting version
+        }
     }
 
     // Method that creates the form panel
@@ -98,6 +178,7 @@ public class StudentPage extends JFrame {
         deleteButton = createStyledButton("Delete", new Color(220, 53, 69), Color.WHITE);
         clearButton = createStyledButton("Clear", new Color(108, 117, 125), Color.WHITE); // NEW
         refreshButton = createStyledButton("Refresh", new Color(23, 162, 184), Color.WHITE); // NEW
+        exportButton = createStyledButton("Export", new Color(111, 66, 193), Color.WHITE);
         logoutButton = createStyledButton("Log Out", new Color(52, 58, 64), Color.WHITE);
 
         buttonPanel.add(addButton);
@@ -105,6 +186,7 @@ public class StudentPage extends JFrame {
         buttonPanel.add(deleteButton);
         buttonPanel.add(clearButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(exportButton);
         buttonPanel.add(logoutButton);
 
         mainFormPanel.add(formPanel, BorderLayout.CENTER);
@@ -118,6 +200,7 @@ public class StudentPage extends JFrame {
         deleteButton.addActionListener(e -> deleteStudent());
         clearButton.addActionListener(e -> clearFields()); // NEW
         refreshButton.addActionListener(e -> refreshData()); // NEW
+        exportButton.addActionListener(e -> exportStudents());
         logoutButton.addActionListener(e -> logoutStudent());
     }
 
@@ -147,26 +230,37 @@ public class StudentPage extends JFrame {
         searchPanel.add(new JLabel("Filter by Program:"));
         programFilterCombo = new JComboBox<>();
         programFilterCombo.addItem("All Programs");
-        programFilterCombo.addActionListener(e -> filterTable());
+        programFilterCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                // Items stay plain program names; the count is only drawn
+                String text = value == null ? "" : value.toString();
+                if ("All Programs".equals(text)) {
+                    text += " (" + programCatalog.getTotal() + ")";
+                } else if (programCounts.containsKey(text)) {
+                    text += " (" + programCounts.get(text) + ")";
+                }
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        programFilterCombo.addActionListener(e -> {
+            if (!updatingProgramFilter) {
+                filterTable();
+            }
+        });
         searchPanel.add(programFilterCombo);
 
         tablePanel.add(searchPanel, BorderLayout.NORTH);
 
-        // Table setup with enhanced features
-        tableModel = new DefaultTableModel(
-                new String[]{"ID", "Student Number", "First Name", "Last Name", "Program", "Level"}, 0
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
-
-        table = new JTable(tableModel);
+        // Debounce typing so only the last keystroke of a burst hits the database
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> runSearch());
+        searchTimer.setRepeats(false);
 
-        // NEW: Add sorting capability
-        sorter = new TableRowSorter<>(tableModel);
-        table.setRowSorter(sorter);
+        // Table setup with enhanced features
+        table = new JTable();
+        browseModel = new StudentTableModel();
+        installModel(browseModel);
 
         // Enhanced table styling
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -178,14 +272,6 @@ public class StudentPage extends JFrame {
         table.setGridColor(Color.LIGHT_GRAY);
         table.setSelectionBackground(new Color(0, 123, 255, 50));
 
-        // Set column widths
-        table.getColumnModel().getColumn(0).setPreferredWidth(50);  // ID
-        table.getColumnModel().getColumn(1).setPreferredWidth(120); // Student Number
-        table.getColumnModel().getColumn(2).setPreferredWidth(100); // First Name
-        table.getColumnModel().getColumn(3).setPreferredWidth(100); // Last Name
-        table.getColumnModel().getColumn(4).setPreferredWidth(150); // Program
-        table.getColumnModel().getColumn(5).setPreferredWidth(60);  // Level
-
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setBackground(Color.WHITE);
         tablePanel.add(scrollPane, BorderLayout.CENTER);
@@ -200,7 +286,11 @@ public class StudentPage extends JFrame {
                 if (row != -1) {
                     // Convert view row to model row (important for sorted tables)
                     int modelRow = table.convertRowIndexToModel(row);
+                    if (tableModel.getStudentAt(modelRow) == null) {
+                        return; // Page still loading
+                    }
                     populateFieldsFromTable(modelRow);
+                    loadSelectedStudent(tableModel.getStudentAt(modelRow).getId());
                     showStatus("Selected student: " +
                             tableModel.getValueAt(modelRow, 2) + " " +
                             tableModel.getValueAt(modelRow, 3), Color.BLUE);
@@ -209,6 +299,27 @@ public class StudentPage extends JFrame {
         });
     }
 
+    // Swaps the table model; sorting and client-side filtering only apply to the in-memory model
+    private void installModel(AbstractStudentTableModel model) {
+        tableModel = model;
+        table.setModel(model);
+        if (model instanceof StudentTableModel) {
+            sorter = new TableRowSorter<>((StudentTableModel) model);
+            sorter.setSortsOnUpdates(true); // Re-sort patched rows in place
+        } else {
+            sorter = null;
+        }
+        table.setRowSorter(sorter);
+
+        // Set column widths
+        table.getColumnModel().getColumn(0).setPreferredWidth(50);  // ID
+        table.getColumnModel().getColumn(1).setPreferredWidth(120); // Student Number
+        table.getColumnModel().getColumn(2).setPreferredWidth(100); // First Name
+        table.getColumnModel().getColumn(3).setPreferredWidth(100); // Last Name
+        table.getColumnModel().getColumn(4).setPreferredWidth(150); // Program
+        table.getColumnModel().getColumn(5).setPreferredWidth(60);  // Level
+    }
+
     // Methods that creates the status panel
     private void createStatusPanel() {
         JPanel statusPanel = new JPanel(new BorderLayout());
@@ -225,7 +336,14 @@ public class StudentPage extends JFrame {
         recordCountLabel.setFont(new Font("Arial", Font.BOLD, 12));
         recordCountLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
 
+        // Progress bar for background database work
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        progressBar.setBorder(BorderFactory.createEmptyBorder(8, 10, 8, 10));
+
         statusPanel.add(statusLabel, BorderLayout.WEST);
+        statusPanel.add(progressBar, BorderLayout.CENTER);
         statusPanel.add(recordCountLabel, BorderLayout.EAST);
 
         add(statusPanel, BorderLayout.SOUTH);
@@ -267,57 +385,141 @@ public class StudentPage extends JFrame {
         timer.start();
     }
 
+    // Shows the progress bar and locks the mutation buttons while a database call runs
+    private void beginBusy(String message) {
+        pendingOperations++;
+        progressBar.setVisible(true);
+        setMutationButtonsEnabled(false);
+        statusLabel.setText(message);
+        statusLabel.setForeground(Color.BLUE);
+    }
+
+    private void endBusy() {
+        pendingOperations = Math.max(0, pendingOperations - 1);
+        if (pendingOperations == 0) {
+            progressBar.setVisible(false);
+            setMutationButtonsEnabled(true);
+        }
+    }
+
+    private void setMutationButtonsEnabled(boolean enabled) {
+        addButton.setEnabled(enabled);
+        updateButton.setEnabled(enabled);
+        deleteButton.setEnabled(enabled);
+        refreshButton.setEnabled(enabled);
+        exportButton.setEnabled(enabled);
+    }
+
     // NEW: Update record count
     private void updateRecordCount() {
-        int totalRecords = tableModel.getRowCount();
+        int totalRecords = browseModel.getRowCount();
         int visibleRecords = table.getRowCount();
-        if (totalRecords == visibleRecords) {
+        if (tableModel == browseModel) {
             recordCountLabel.setText("Records: " + totalRecords);
+        } else if (visibleRecords >= SEARCH_LIMIT) {
+            recordCountLabel.setText("Showing first " + visibleRecords + " matches of " + totalRecords);
         } else {
             recordCountLabel.setText("Showing: " + visibleRecords + " of " + totalRecords);
         }
     }
 
-    // NEW: Search and filter functionality
+    // NEW: Search and filter functionality. Local index lookups run on every
+    // keystroke; database queries wait for a pause in typing.
     private void filterTable() {
-        String searchText = searchField.getText().toLowerCase();
+        if (searchIndex.isReady() && browseModel instanceof StudentTableModel) {
+            runSearch();
+        } else {
+            searchTimer.restart();
+        }
+    }
+
+    // Pushes the search text and program filter down to an indexed SQLite query
+    // and shows only the matching rows. With no criteria the full table is shown.
+    private void runSearch() {
+        searchTimer.stop();
+        String searchText = searchField.getText().trim();
         String selectedProgram = (String) programFilterCombo.getSelectedItem();
+        String program = selectedProgram == null || selectedProgram.equals("All Programs") ? null : selectedProgram;
+        int sequence = ++searchSequence;
 
-        List<RowFilter<Object, Object>> filters = new ArrayList<>();
+        if (searchText.isEmpty() && program == null) {
+            searchResults = null;
+            if (tableModel != browseModel) {
+                installModel(browseModel);
+            }
+            updateRecordCount();
+            return;
+        }
 
-        // Search filter
-        if (!searchText.isEmpty()) {
-            filters.add(RowFilter.regexFilter("(?i)" + searchText));
+        if (searchIndex.isReady() && browseModel instanceof StudentTableModel) {
+            showSearchResults(searchLoaded((StudentTableModel) browseModel, searchText, program));
+            return;
         }
 
-        // Program filter
-        if (selectedProgram != null && !selectedProgram.equals("All Programs")) {
-            filters.add(RowFilter.regexFilter("^" + selectedProgram + "$", 4)); // Column 4 is Program
+        asyncDao.searchStudents(searchText, program, SEARCH_LIMIT).whenCompleteAsync((students, error) -> {
+            if (sequence != searchSequence) {
+                return; // A newer search has already been started
+            }
+            if (error != null) {
+                showStatus("Search failed: " + error.getMessage(), Color.RED);
+                return;
+            }
+            showSearchResults(students);
+        }, EDT);
+    }
+
+    // Answers a search from the in-memory index instead of the database
+    private List<Student> searchLoaded(StudentTableModel model, String searchText, String program) {
+        List<Student> matches = new ArrayList<>();
+        StudentColumnStore store = model.getStore();
+        // Program filter compares dictionary codes; NONE means no student has that program
+        int programCode = ProgramDictionary.find(program);
+        if (program != null && programCode == ProgramDictionary.NONE) {
+            return matches;
         }
+        if (searchText.isEmpty()) {
+            for (int row = 0; row < store.size() && matches.size() < SEARCH_LIMIT; row++) {
+                if (store.getProgramCode(row) == programCode) {
+                    matches.add(store.getStudent(row));
+                }
+            }
+            return matches;
+        }
+        for (int id : searchIndex.search(searchText, Integer.MAX_VALUE)) {
+            int row = store.indexOf(id);
+            if (row < 0) {
+                continue; // Indexed on the worker thread but not applied to the table yet
+            }
+            if (program == null || store.getProgramCode(row) == programCode) {
+                matches.add(store.getStudent(row));
+                if (matches.size() == SEARCH_LIMIT) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
 
-        if (filters.isEmpty()) {
-            sorter.setRowFilter(null);
+    private void showSearchResults(List<Student> students) {
+        if (searchResults == null) {
+            searchResults = new StudentTableModel();
+            searchResults.setStudents(students);
+            installModel(searchResults);
         } else {
-            sorter.setRowFilter(RowFilter.andFilter(filters));
+            searchResults.setStudents(students);
         }
-
         updateRecordCount();
     }
 
-    // NEW: Populate program filter dropdown
+    // NEW: Populate program filter dropdown from the program catalog, O(#programs)
     private void updateProgramFilter() {
+        programCounts = programCatalog.snapshot();
         String currentSelection = (String) programFilterCombo.getSelectedItem();
+        updatingProgramFilter = true;
         programFilterCombo.removeAllItems();
         programFilterCombo.addItem("All Programs");
 
-        // Get unique programs from the data
-        java.util.Set<String> programs = new java.util.HashSet<>();
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            String program = tableModel.getValueAt(i, 4).toString();
-            programs.add(program);
-        }
-
-        for (String program : programs) {
+        for (String program : programCounts.keySet()) {
             programFilterCombo.addItem(program);
         }
 
@@ -325,23 +527,52 @@ public class StudentPage extends JFrame {
         if (currentSelection != null) {
             programFilterCombo.setSelectedItem(currentSelection);
         }
+        updatingProgramFilter = false;
+        if (currentSelection != null && !currentSelection.equals(programFilterCombo.getSelectedItem())) {
+            filterTable(); // The filtered program no longer exists
+        }
     }
 
     // NEW: Refresh data method
     private void refreshData() {
         showStatus("Refreshing data...", Color.BLUE);
-        loadStudents();
-        updateRecordCount();
-        showStatus("Data refreshed successfully!", Color.GREEN);
+        loadStudents().thenAcceptAsync(loaded -> {
+            if (loaded) {
+                showStatus("Data refreshed successfully!", Color.GREEN);
+            }
+        }, EDT);
     }
 
     // NEW: Populate fields from selected table row
     private void populateFieldsFromTable(int modelRow) {
-        studentNumberField.setText(tableModel.getValueAt(modelRow, 1).toString());
-        firstNameField.setText(tableModel.getValueAt(modelRow, 2).toString());
-        lastNameField.setText(tableModel.getValueAt(modelRow, 3).toString());
-        programField.setText(tableModel.getValueAt(modelRow, 4).toString());
-        levelSpinner.setValue((int) tableModel.getValueAt(modelRow, 5));
+        populateFields(tableModel.getStudentAt(modelRow));
+    }
+
+    // Re-reads the selected student by id, which the student cache answers once
+    // the row has been seen, so the form shows the stored row even when another
+    // client changed it. The table itself catches up through the change poller.
+    private void loadSelectedStudent(int id) {
+        selectedId = id;
+        asyncDao.getStudentById(id).whenCompleteAsync((student, error) -> {
+            if (id != selectedId) {
+                return; // Another row was selected meanwhile
+            }
+            if (error != null) {
+                error.printStackTrace(); // The form keeps the table's copy
+            } else if (student == null) {
+                showStatus("This student was deleted by another user.", Color.RED);
+            } else {
+                populateFields(student);
+            }
+        }, EDT);
+    }
+
+    private void populateFields(Student student) {
+        studentNumberField.setText(student.getStudentNumber());
+        firstNameField.setText(student.getFirstName());
+        lastNameField.setText(student.getLastName());
+        programField.setText(student.getProgram());
+        levelSpinner.setValue(student.getLevel());
 
         // Disable name/number fields for editing (only allow program/level changes)
         setFieldsEditable(false);
@@ -361,54 +592,312 @@ public class StudentPage extends JFrame {
         panel.add(field, gbc);
     }
 
-    // Method to load data from database
-    private void loadStudents() {
-        tableModel.setRowCount(0);
-        try {
-            List<Student> students = studentDao.getAllStudents();
-            for (Student student : students) {
-                tableModel.addRow(new Object[]{
-                        student.getId(),
-                        student.getStudentNumber(),
-                        student.getFirstName(),
-                        student.getLastName(),
-                        student.getProgram(),
-                        student.getLevel()
-                });
+    // Method to load data from database; completes on the EDT once the table is filled,
+    // with false if the load failed (already reported to the user).
+    // Large tables get a lazy model that only fetches the pages being looked at.
+    private CompletableFuture<Boolean> loadStudents() {
+        beginBusy("Loading students...");
+        // Read before the data, so changes racing with the load are replayed rather than lost
+        long catalogGeneration = programCatalog.currentGeneration();
+        CompletableFuture<Long> baseline = asyncDao.currentChangeVersion();
+        return baseline.thenCompose(version -> asyncDao.countStudents()).thenComposeAsync(count -> {
+            if (count < 0) {
+                throw new IllegalStateException("could not count students"); // Not an empty table
+            }
+            if (count > PAGED_THRESHOLD) {
+                // Seeds the program dropdown with one GROUP BY; its listener refreshes the combo
+                asyncDao.loadProgramCatalog(programCatalog);
+                searchIndex.clear(); // Paged tables are searched in SQLite
+                browseModel = new PagedStudentTableModel(asyncDao, count, PAGE_SIZE, MAX_CACHED_PAGES);
+                if (searchResults == null) {
+                    installModel(browseModel);
+                }
+                return CompletableFuture.completedFuture(count);
+            }
+            return asyncDao.getAllStudentsColumnar().thenApply(students -> {
+                if (students == null) {
+                    // Never shown or saved as the snapshot: a partial table would look complete
+                    throw new IllegalStateException("could not read the students table");
+                }
+                searchIndex.rebuild(students); // Still on the database worker
+                if (!programCatalog.load(students, catalogGeneration)) {
+                    asyncDao.loadProgramCatalog(programCatalog); // A write raced the read; count in SQLite
+                }
+                saveSnapshot(students, baseline.join());
+                return students;
+            }).thenApplyAsync(students -> {
+                showStore(students);
+                return students.size();
+            }, EDT);
+        }, EDT).handleAsync((count, error) -> {
+            endBusy();
+            if (error != null) {
+                showStatus("Error loading students: " + error.getMessage(), Color.RED);
+                JOptionPane.showMessageDialog(this, "Error loading student data.", "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
+            if (changePoller != null && baseline.join() >= 0) {
+                changePoller.resetTo(baseline.join());
+            }
+            if (searchResults != null) {
+                runSearch(); // Refresh the visible matches too
+            }
+            updateRecordCount();
+            StartupTimeline.mark(StartupTimeline.FIRST_ROWS); // Only the first load counts
+            showStatus("Loaded " + count + " student records.", Color.GREEN);
+            return true;
+        }, EDT);
+    }
+
+    // Shows a fully loaded table (EDT)
+    private void showStore(StudentColumnStore students) {
+        if (browseModel instanceof StudentTableModel) {
+            ((StudentTableModel) browseModel).setStore(students); // Keeps the current sort keys
+        } else {
+            StudentTableModel model = new StudentTableModel();
+            model.setStore(students);
+            browseModel = model;
+            if (searchResults == null) {
+                installModel(browseModel);
             }
-            updateProgramFilter(); // Update the program filter dropdown
-            showStatus("Loaded " + students.size() + " student records.", Color.GREEN);
-        } catch (Exception e) {
-            showStatus("Error loading students: " + e.getMessage(), Color.RED);
-            JOptionPane.showMessageDialog(this, "Error loading student data.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
-    // Method to add new set of data
-    private void addStudent() {
-        if (!validateFields()) {
+    // Runs on the worker that built the store, before the EDT owns it.
+    // A failed save only costs the next start its head start.
+    private void saveSnapshot(StudentColumnStore students, long version) {
+        if (snapshot == null || version < 0) {
             return;
         }
-
         try {
-            String studentNumber = studentNumberField.getText().trim();
-            String firstName = firstNameField.getText().trim();
-            String lastName = lastNameField.getText().trim();
-            String program = programField.getText().trim();
-            int level = (int) levelSpinner.getValue();
-
-            Student newStudent = new Student(0, studentNumber, firstName, lastName, program, level);
-            studentDao.addStudent(newStudent);
+            snapshot.write(students, version);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
+    // First load. With a usable snapshot the table is shown straight from it
+    // and then caught up through the change feed; otherwise a full load.
+    private void openStudents() {
+        if (snapshot == null) {
             loadStudents();
-            clearFields();
+            return;
+        }
+        CompletableFuture.supplyAsync(snapshot::read, DatabaseExecutor.get()).whenCompleteAsync((loaded, error) -> {
+            if (error != null || loaded == null || loaded.getStore().size() > PAGED_THRESHOLD) {
+                loadStudents();
+                return;
+            }
+            showStore(loaded.getStore());
             updateRecordCount();
-            showStatus("Student added successfully: " + firstName + " " + lastName, Color.GREEN);
+            StartupTimeline.mark(StartupTimeline.FIRST_ROWS);
+            catchUpFromSnapshot(loaded.getVersion());
+        }, EDT);
+    }
 
-        } catch (Exception e) {
-            showStatus("Error adding student: " + e.getMessage(), Color.RED);
-            JOptionPane.showMessageDialog(this, "Error adding student.", "Error", JOptionPane.ERROR_MESSAGE);
+    private void catchUpFromSnapshot(long snapshotVersion) {
+        beginBusy("Checking saved student records for changes...");
+        long catalogGeneration = programCatalog.currentGeneration();
+        // Indexed from a second read of the file, so the EDT's copy is never touched off-thread.
+        // False if a write landed meanwhile: the catalog can't tell whether the snapshot has it.
+        CompletableFuture<Boolean> indexed = CompletableFuture.supplyAsync(() -> {
+            StudentSnapshot.Loaded copy = snapshot.read();
+            if (copy == null) {
+                return false;
+            }
+            searchIndex.rebuild(copy.getStore());
+            return programCatalog.load(copy.getStore(), catalogGeneration);
+        }, DatabaseExecutor.get());
+        CompletableFuture<Long> feed = asyncDao.currentChangeVersion();
+        indexed.thenCombine(feed, (consistent, current) -> consistent)
+                .whenCompleteAsync((consistent, error) -> {
+                    endBusy();
+                    // A feed behind the snapshot means the database was replaced
+                    if (error != null || !consistent || feed.join() < snapshotVersion || changePoller == null) {
+                        loadStudents();
+                        return;
+                    }
+                    changePoller.resetTo(snapshotVersion); // Everything since the snapshot arrives as deltas
+                    changePoller.pollNow();
+                    showStatus("Opened " + browseModel.getRowCount() + " saved student records.", Color.GREEN);
+                }, EDT);
+    }
+
+    // Applies edits other clients made, as reported by the change poller (on the EDT).
+    // Only the changed rows are touched; the search index and program counts get
+    // the same events our own DAO writes would have produced.
+    private void applyRemoteChanges(StudentChangeSet changes) {
+        if (changes.isReset()) {
+            refreshData(); // Fell behind the change log
+            return;
         }
+        if (!(browseModel instanceof StudentTableModel)) {
+            // Paged: updates to cached rows are patched in place. Anything else may be an
+            // insert or delete that shifts rows, so re-count and let pages refetch lazily.
+            boolean reload = !changes.getDeleted().isEmpty();
+            for (Student student : changes.getChanged()) {
+                if (browseModel.updateStudent(student) == null) {
+                    reload = true;
+                }
+            }
+            if (reload) {
+                loadStudents();
+                return;
+            }
+            asyncDao.loadProgramCatalog(programCatalog);
+        } else {
+            StudentTableModel model = (StudentTableModel) browseModel;
+            for (Student after : changes.getChanged()) {
+                int row = model.indexOf(after.getId());
+                Student before = row < 0 ? null : model.getStudentAt(row);
+                if (before == null) {
+                    model.addStudent(after);
+                    searchIndex.studentAdded(after);
+                    programCatalog.studentAdded(after);
+                } else if (before.getStudentNumber().equals(after.getStudentNumber())
+                        && before.getFirstName().equals(after.getFirstName())
+                        && before.getLastName().equals(after.getLastName())) {
+                    model.updateStudent(after);
+                    searchIndex.studentUpdated(before, after);
+                    programCatalog.studentUpdated(before, after);
+                } else {
+                    // Renamed elsewhere; the column store only updates program and level in place
+                    model.removeStudent(before.getId());
+                    model.addStudent(after);
+                    searchIndex.studentUpdated(before, after);
+                    programCatalog.studentUpdated(before, after);
+                }
+            }
+            for (int id : changes.getDeleted()) {
+                Student before = model.removeStudent(id);
+                if (before != null) {
+                    searchIndex.studentDeleted(before);
+                    programCatalog.studentDeleted(before);
+                }
+            }
+        }
+        if (searchResults != null) {
+            runSearch();
+        }
+        updateRecordCount();
+        int count = changes.getChanged().size() + changes.getDeleted().size();
+        showStatus(count + " student record(s) changed by another user.", Color.BLUE);
+    }
+
+    // Streams the whole table to a CSV or JSON Lines file (optionally gzipped)
+    // on a database worker, with a determinate progress bar
+    private void exportStudents() {
+        FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV (*.csv)", "csv");
+        FileNameExtensionFilter jsonFilter = new FileNameExtensionFilter("JSON Lines (*.jsonl)", "jsonl");
+        JCheckBox gzipBox = new JCheckBox("Compress (gzip)");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Students");
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.addChoosableFileFilter(csvFilter);
+        chooser.addChoosableFileFilter(jsonFilter);
+        chooser.setFileFilter(csvFilter);
+        chooser.setAccessory(gzipBox);
+        chooser.setSelectedFile(new File("students.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        ExportFormat format = chooser.getFileFilter() == jsonFilter ? ExportFormat.JSON_LINES : ExportFormat.CSV;
+        boolean gzip = gzipBox.isSelected();
+        String extension = "." + format.getExtension() + (gzip ? ".gz" : "");
+        File file = chooser.getSelectedFile();
+        if (!file.getName().endsWith(extension)) {
+            String name = file.getName().replaceFirst("\\.(csv|jsonl)(\\.gz)?$", "");
+            file = new File(file.getParentFile(), name + extension);
+        }
+        File target = file;
+
+        beginBusy("Exporting students...");
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(0);
+        StudentExporter exporter = new StudentExporter(studentDao);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return exporter.export(target.toPath(), format, gzip, (rows, total) ->
+                        SwingUtilities.invokeLater(() -> {
+                            progressBar.setValue(total > 0 ? (int) Math.min(100, rows * 100 / total) : 100);
+                            statusLabel.setText("Exported " + rows + (total >= 0 ? " of " + total : "") + " students...");
+                        }));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DatabaseExecutor.get()).whenCompleteAsync((rows, error) -> {
+            progressBar.setIndeterminate(true);
+            endBusy();
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                cause.printStackTrace();
+                showStatus("Export failed: " + cause.getMessage(), Color.RED);
+                JOptionPane.showMessageDialog(this, "Error exporting students.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            showStatus("Exported " + rows + " students to " + target.getName(), Color.GREEN);
+        }, EDT);
+    }
+
+    // Flushes queued writes and stops polling, before logout or exit
+    private void stopBackgroundWork() {
+        if (changePoller != null) {
+            changePoller.close();
+        }
+        if (writeBehind != null) {
+            writeBehind.close(5, TimeUnit.SECONDS);
+        }
+        if (studentDao instanceof CachingStudentDAO) {
+            ((CachingStudentDAO) studentDao).unpublish();
+        }
+    }
+
+    // Method to add new set of data
+    private void addStudent() {
+        if (!validateFields()) {
+            return;
+        }
+
+        String studentNumber = studentNumberField.getText().trim();
+        String firstName = firstNameField.getText().trim();
+        String lastName = lastNameField.getText().trim();
+        String program = programField.getText().trim();
+        int level = (int) levelSpinner.getValue();
+
+        Student newStudent = new Student(0, studentNumber, firstName, lastName, program, level);
+        beginBusy("Adding student...");
+        // Student numbers identify students, so refuse a second one. The lookup (indexed, cached
+        // once seen) answers the common case early; the unique index settles a race with another
+        // clerk's add, which addStudent reports as DUPLICATE_NUMBER too.
+        asyncDao.findByStudentNumber(studentNumber)
+                .thenCompose(existing -> existing != null
+                        ? CompletableFuture.completedFuture(StudentRepository.DUPLICATE_NUMBER)
+                        : asyncDao.addStudent(newStudent))
+                .whenCompleteAsync((id, error) -> {
+                    endBusy();
+                    if (error == null && id == StudentRepository.DUPLICATE_NUMBER) {
+                        showStatus("Student number already exists.", Color.RED);
+                        JOptionPane.showMessageDialog(this,
+                                "A student with number " + studentNumber + " already exists.",
+                                "Duplicate Student Number",
+                                JOptionPane.WARNING_MESSAGE);
+                        return;
+                    }
+                    if (error != null || id < 0) {
+                        showStatus("Error adding student.", Color.RED);
+                        JOptionPane.showMessageDialog(this, "Error adding student.", "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    // Apply the new row as a delta instead of reloading the table
+                    browseModel.addStudent(newStudent);
+                    if (searchResults != null) {
+                        runSearch(); // The new row may or may not match the active search
+                    }
+                    clearFields();
+                    updateRecordCount();
+                    showStatus("Student added successfully: " + firstName + " " + lastName, Color.GREEN);
+                }, EDT);
     }
 
     // Method to update existing data
@@ -424,47 +913,56 @@ public class StudentPage extends JFrame {
             return;
         }
 
-        try {
-            int modelRow = table.convertRowIndexToModel(row);
-            int id = (int) tableModel.getValueAt(modelRow, 0);
-
-            // Original values from table model
-            String originalStudentNumber = (String) tableModel.getValueAt(modelRow, 1);
-            String originalFirstName = (String) tableModel.getValueAt(modelRow, 2);
-            String originalLastName = (String) tableModel.getValueAt(modelRow, 3);
-
-            // Current values from input fields
-            String studentNumber = studentNumberField.getText().trim();
-            String firstName = firstNameField.getText().trim();
-            String lastName = lastNameField.getText().trim();
-            String program = programField.getText().trim();
-            int level = (int) levelSpinner.getValue();
-
-            // Check for disallowed changes
-            if (!studentNumber.equals(originalStudentNumber) ||
-                    !firstName.equalsIgnoreCase(originalFirstName) ||
-                    !lastName.equalsIgnoreCase(originalLastName)) {
-                showStatus("You can only update the program and grade level.", Color.RED);
-                JOptionPane.showMessageDialog(this,
-                        "You are only allowed to update the course and grade level.\nStudent number and name cannot be changed.",
-                        "Update Not Allowed",
-                        JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-
-            // Proceed with update
-            Student updatedStudent = new Student(id, studentNumber, firstName, lastName, program, level);
-            studentDao.updateStudent(updatedStudent);
+        int modelRow = table.convertRowIndexToModel(row);
+        int id = (int) tableModel.getValueAt(modelRow, 0);
 
-            loadStudents();
-            clearFields();
-            updateRecordCount();
-            showStatus("Student updated successfully: " + firstName + " " + lastName, Color.GREEN);
+        // Original values from table model
+        String originalStudentNumber = (String) tableModel.getValueAt(modelRow, 1);
+        String originalFirstName = (String) tableModel.getValueAt(modelRow, 2);
+        String originalLastName = (String) tableModel.getValueAt(modelRow, 3);
 
-        } catch (Exception e) {
-            showStatus("Error updating student: " + e.getMessage(), Color.RED);
-            JOptionPane.showMessageDialog(this, "Error updating student.", "Error", JOptionPane.ERROR_MESSAGE);
+        // Current values from input fields
+        String studentNumber = studentNumberField.getText().trim();
+        String firstName = firstNameField.getText().trim();
+        String lastName = lastNameField.getText().trim();
+        String program = programField.getText().trim();
+        int level = (int) levelSpinner.getValue();
+
+        // Check for disallowed changes
+        if (!studentNumber.equals(originalStudentNumber) ||
+                !firstName.equalsIgnoreCase(originalFirstName) ||
+                !lastName.equalsIgnoreCase(originalLastName)) {
+            showStatus("You can only update the program and grade level.", Color.RED);
+            JOptionPane.showMessageDialog(this,
+                    "You are only allowed to update the course and grade level.\nStudent number and name cannot be changed.",
+                    "Update Not Allowed",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
         }
+
+        // Proceed with update
+        Student updatedStudent = new Student(id, studentNumber, firstName, lastName, program, level);
+        beginBusy("Updating student...");
+        // The stored row is read back after the write; a cached copy was patched by it, so that's a cache hit
+        asyncDao.updateStudent(updatedStudent)
+                .thenCompose(updated -> updated
+                        ? asyncDao.getStudentById(id)
+                        : CompletableFuture.completedFuture(null))
+                .whenCompleteAsync((stored, error) -> {
+                    endBusy();
+                    if (error != null || stored == null) {
+                        showStatus("Error updating student.", Color.RED);
+                        JOptionPane.showMessageDialog(this, "Error updating student.", "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    browseModel.updateStudent(stored);
+                    if (searchResults != null) {
+                        runSearch(); // The program may have moved in or out of the filter
+                    }
+                    clearFields();
+                    updateRecordCount();
+                    showStatus("Student updated successfully: " + firstName + " " + lastName, Color.GREEN);
+                }, EDT);
     }
 
     // Method to delete data
@@ -476,29 +974,35 @@ public class StudentPage extends JFrame {
             return;
         }
 
-        try {
-            int modelRow = table.convertRowIndexToModel(row);
-            String studentName = tableModel.getValueAt(modelRow, 2) + " " + tableModel.getValueAt(modelRow, 3);
-
-            int confirm = JOptionPane.showConfirmDialog(
-                    this,
-                    "Are you sure you want to delete student: " + studentName + "?",
-                    "Confirm Delete",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.WARNING_MESSAGE
-            );
-
-            if (confirm == JOptionPane.YES_OPTION) {
-                int id = (int) tableModel.getValueAt(modelRow, 0);
-                studentDao.deleteStudent(id);
-                loadStudents();
+        int modelRow = table.convertRowIndexToModel(row);
+        String studentName = tableModel.getValueAt(modelRow, 2) + " " + tableModel.getValueAt(modelRow, 3);
+
+        int confirm = JOptionPane.showConfirmDialog(
+                this,
+                "Are you sure you want to delete student: " + studentName + "?",
+                "Confirm Delete",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE
+        );
+
+        if (confirm == JOptionPane.YES_OPTION) {
+            int id = (int) tableModel.getValueAt(modelRow, 0);
+            beginBusy("Deleting student...");
+            asyncDao.deleteStudent(id).whenCompleteAsync((deleted, error) -> {
+                endBusy();
+                if (error != null || !deleted) {
+                    showStatus("Error deleting student.", Color.RED);
+                    JOptionPane.showMessageDialog(this, "Error deleting student.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                browseModel.removeStudent(id);
+                if (searchResults != null) {
+                    searchResults.removeStudent(id);
+                }
                 clearFields();
                 updateRecordCount();
                 showStatus("Student deleted: " + studentName, Color.RED);
-            }
-        } catch (Exception e) {
-            showStatus("Error deleting student: " + e.getMessage(), Color.RED);
-            JOptionPane.showMessageDialog(this, "Error deleting student.", "Error", JOptionPane.ERROR_MESSAGE);
+            }, EDT);
         }
     }
 
@@ -510,6 +1014,7 @@ public class StudentPage extends JFrame {
         programField.setText("");
         levelSpinner.setValue(1);
         table.clearSelection();
+        selectedId = -1;
 
         // Enable all fields for new entry
         setFieldsEditable(true);
@@ -551,8 +1056,14 @@ public class StudentPage extends JFrame {
 
         if (confirm == JOptionPane.YES_OPTION) {
             showStatus("Logging out...", Color.BLUE);
-            new LoginPage();
-            dispose();
+            // Write anything still queued before leaving; a no-op without write-behind
+            beginBusy("Saving pending changes...");
+            asyncDao.flush().whenCompleteAsync((ignored, error) -> {
+                endBusy();
+                stopBackgroundWork();
+                new LoginPage();
+                dispose();
+            }, EDT);
         }
     }
 
@@ -0,0 +1,102 @@
+package pages;
+
+import models.Student;
+import models.StudentColumnStore;
+
+import java.util.List;
+
+// Read-only table model over a StudentColumnStore. Cells are read straight
+// from the columns, and single-row deltas fire matching fine-grained events
+// instead of reloading everything.
+public class StudentTableModel extends AbstractStudentTableModel {
+    private StudentColumnStore rows = new StudentColumnStore();
+
+    // Replaces the whole data set, keeping the list's order (e.g. ranked search results)
+    public void setStudents(List<Student> students) {
+        StudentColumnStore store = new StudentColumnStore(students.size());
+        for (Student student : students) {
+            store.append(student);
+        }
+        setStore(store);
+    }
+
+    // Takes over a store built elsewhere, e.g. on a database worker
+    public void setStore(StudentColumnStore store) {
+        rows = store;
+        fireTableDataChanged();
+    }
+
+    public StudentColumnStore getStore() {
+        return rows;
+    }
+
+    // A student that is already shown (e.g. applied from the change feed first) is updated instead
+    @Override
+    public void addStudent(Student student) {
+        if (rows.indexOf(student.getId()) >= 0) {
+            updateStudent(student);
+            return;
+        }
+        int row = rows.add(student);
+        fireTableRowsInserted(row, row);
+    }
+
+    @Override
+    public Student updateStudent(Student student) {
+        int row = rows.indexOf(student.getId());
+        if (row < 0) {
+            return null;
+        }
+        Student previous = rows.getStudent(row);
+        rows.update(row, student.getProgram(), student.getLevel());
+        fireTableRowsUpdated(row, row);
+        return previous;
+    }
+
+    @Override
+    public Student removeStudent(int id) {
+        int row = rows.indexOf(id);
+        if (row < 0) {
+            return null;
+        }
+        Student removed = rows.getStudent(row);
+        rows.remove(row);
+        fireTableRowsDeleted(row, row);
+        return removed;
+    }
+
+    @Override
+    public Student getStudentAt(int row) {
+        return rows.getStudent(row);
+    }
+
+    // Avoids building a Student per painted cell
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0:
+                return rows.getId(row);
+            case 1:
+                return rows.getStudentNumber(row);
+            case 2:
+                return rows.getFirstName(row);
+            case 3:
+                return rows.getLastName(row);
+            case 4:
+                return rows.getProgram(row);
+            case 5:
+                return rows.getLevel(row);
+            default:
+                throw new IndexOutOfBoundsException("No column " + column);
+        }
+    }
+
+    public int indexOf(int id) {
+        return rows.indexOf(id);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+}
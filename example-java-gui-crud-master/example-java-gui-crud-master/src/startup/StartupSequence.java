@@ -0,0 +1,78 @@
+package startup;
+
+import dal.admins.PasswordHasher;
+import db.Database;
+import db.DatabaseExecutor;
+import metrics.EdtWatchdog;
+import metrics.Metrics;
+
+import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Start-up work that doesn't need the UI runs here, on database workers, while
+// the EDT builds and shows the login window:
+//
+//   database    load the SQLite driver, open the pool and migrate the schema
+//   monitoring  JMX registration and the EDT watchdog (the platform MBean server is slow to create)
+//   crypto      the PBKDF2 provider and SecureRandom seeding used by the first login
+//
+// The tasks are independent, and anything that needs the database before they
+// finish simply waits inside Database.getPool(). -Dstartup.parallel=false runs
+// the old serial start instead, for comparison.
+public class StartupSequence {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("startup.parallel", "true"));
+    private static final String DRIVER_CLASS = "org.sqlite.JDBC";
+
+    private static CompletableFuture<Void> ready;
+
+    // Starts the background tasks and returns at once; the future completes when all have finished
+    public static synchronized CompletableFuture<Void> start() {
+        StartupTimeline.mark(StartupTimeline.MAIN);
+        if (ready != null) {
+            return ready;
+        }
+        if (!ENABLED) {
+            StartupTimeline.register();
+            EdtWatchdog.start();
+            ready = CompletableFuture.completedFuture(null);
+            return ready;
+        }
+        Executor workers = DatabaseExecutor.get();
+        CompletableFuture<Void> database = CompletableFuture.runAsync(StartupSequence::openDatabase, workers);
+        CompletableFuture<Void> monitoring = CompletableFuture.runAsync(StartupSequence::startMonitoring, workers);
+        CompletableFuture<Void> crypto = CompletableFuture.runAsync(PasswordHasher::preload, workers);
+        ready = CompletableFuture.allOf(database, monitoring, crypto).whenComplete((ignored, error) -> {
+            if (error != null) {
+                error.printStackTrace(); // The app still starts; the same step is retried on first use
+            }
+        });
+        return ready;
+    }
+
+    private static void openDatabase() {
+        try {
+            Class.forName(DRIVER_CLASS);
+            StartupTimeline.mark(StartupTimeline.DRIVER_LOADED);
+        } catch (ClassNotFoundException e) {
+            System.err.println("SQLite JDBC driver not found on the classpath: " + DRIVER_CLASS);
+            return;
+        }
+        try {
+            Database.getPool(); // Opens the first connection and runs SchemaMigrator
+        } catch (IllegalStateException e) {
+            // Every database call fails after this, so say why up front
+            e.printStackTrace();
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, e.getMessage(),
+                    "Database Error", JOptionPane.ERROR_MESSAGE));
+            return;
+        }
+        StartupTimeline.mark(StartupTimeline.DATABASE_READY);
+    }
+
+    private static void startMonitoring() {
+        Metrics.sqlErrors(); // Creates the MBean server and registers the SQL error counters
+        StartupTimeline.register();
+        EdtWatchdog.start();
+    }
+}
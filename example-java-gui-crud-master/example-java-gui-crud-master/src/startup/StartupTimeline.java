@@ -0,0 +1,115 @@
+package startup;
+
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Milestones of one application start, in milliseconds since the JVM started.
+// Only the first time each milestone is reached counts. Once the first student
+// rows are shown, the run is appended as one line to startup-timeline.log so
+// startup times can be compared across releases, e.g.
+//
+//   2026-10-18T09:12:44Z java=21.0.2 parallel=true main=142 ... first-rows=5310 firstFrameMs=388 firstRowsMs=171
+//
+// Time to first rows is measured from login, so it leaves out the time spent typing.
+// -Dstartup.timeline.file changes the file; an empty value turns the log off.
+public class StartupTimeline implements StartupTimelineMXBean {
+    public static final String MAIN = "main";
+    public static final String DRIVER_LOADED = "driver-loaded";
+    public static final String DATABASE_READY = "database-ready";
+    public static final String LOGIN_FRAME = "login-frame";
+    public static final String LOGGED_IN = "logged-in";
+    public static final String STUDENT_FRAME = "student-frame";
+    public static final String FIRST_ROWS = "first-rows";
+
+    private static final String LOG_FILE = System.getProperty("startup.timeline.file", "startup-timeline.log");
+    private static final StartupTimeline instance = new StartupTimeline();
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    // Guarded by 'marks'; kept in the order the milestones were reached
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+
+    public static StartupTimeline get() {
+        return instance;
+    }
+
+    // Records a milestone at the current time, unless it was already reached
+    public static void mark(String name) {
+        long millis = System.currentTimeMillis() - instance.jvmStartMillis;
+        synchronized (instance.marks) {
+            if (instance.marks.putIfAbsent(name, millis) != null) {
+                return;
+            }
+        }
+        if (FIRST_ROWS.equals(name)) {
+            CompletableFuture.runAsync(instance::writeLog); // Usually reached on the EDT
+        }
+    }
+
+    // Publishes the timeline over JMX; done off the EDT by StartupSequence
+    public static void register() {
+        Metrics.register("type=StartupTimeline", instance);
+    }
+
+    public long getMillis(String name) {
+        synchronized (marks) {
+            Long millis = marks.get(name);
+            return millis == null ? -1 : millis;
+        }
+    }
+
+    @Override
+    public long getTimeToFirstFrameMillis() {
+        return getMillis(LOGIN_FRAME);
+    }
+
+    @Override
+    public long getTimeToFirstRowsMillis() {
+        long loggedIn = getMillis(LOGGED_IN);
+        long firstRows = getMillis(FIRST_ROWS);
+        return loggedIn < 0 || firstRows < 0 ? -1 : firstRows - loggedIn;
+    }
+
+    @Override
+    public String getMarks() {
+        StringBuilder text = new StringBuilder();
+        synchronized (marks) {
+            for (Map.Entry<String, Long> mark : marks.entrySet()) {
+                text.append(mark.getKey()).append('=').append(mark.getValue()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private void writeLog() {
+        if (LOG_FILE.isEmpty()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        line.append(Instant.now()).append(" java=").append(System.getProperty("java.version"))
+                .append(" parallel=").append(StartupSequence.ENABLED);
+        synchronized (marks) {
+            for (Map.Entry<String, Long> mark : marks.entrySet()) {
+                line.append(' ').append(mark.getKey()).append('=').append(mark.getValue());
+            }
+        }
+        line.append(" firstFrameMs=").append(getTimeToFirstFrameMillis())
+                .append(" firstRowsMs=").append(getTimeToFirstRowsMillis())
+                .append(System.lineSeparator());
+        try {
+            Files.write(Paths.get(LOG_FILE), line.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
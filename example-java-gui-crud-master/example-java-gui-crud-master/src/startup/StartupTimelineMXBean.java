@@ -0,0 +1,13 @@
+package startup;
+
+// JMX view of how long this process took to start
+public interface StartupTimelineMXBean {
+    // JVM start to the login window being shown; -1 until then
+    long getTimeToFirstFrameMillis();
+
+    // Login to the first student rows being shown; -1 until then
+    long getTimeToFirstRowsMillis();
+
+    // Every milestone so far, "name=millisSinceJvmStart" per line
+    String getMarks();
+}